@@ -0,0 +1,42 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.loader.SyntheticDataLoader;
+import study.querydsl.loader.SyntheticDataProperties;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 (embedded H2, benchmark 프로파일)
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 시딩할 회원 수 (-Dbenchmark.members, gradle -PbenchmarkMembers)
+     */
+    public static int members() {
+        return Integer.getInteger("benchmark.members", 10_000);
+    }
+
+    public static int teams() {
+        return Integer.getInteger("benchmark.teams", 10);
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return SpringApplication.run(QuerydslApplication.class, "--spring.profiles.active=benchmark");
+    }
+
+    /**
+     * 회원은 member0.., 팀은 team0.. 이름으로, 나이는 0~99 균등 분포로 적재
+     */
+    public static void seed(ConfigurableApplicationContext context, int members, int teams) {
+        SyntheticDataProperties properties = new SyntheticDataProperties();
+        properties.setMembers(members);
+        properties.setTeams(teams);
+        properties.setWriters(Integer.getInteger("benchmark.writers", 4));
+        context.getBean(SyntheticDataLoader.class).load(properties);
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * offset 페이징 (전체 row + team 조인을 offset 만큼 읽고 버림) vs 지연 조인 페이징 (id 만 건너뜀)
+ * 나이 순 정렬, 1페이지와 5,000페이지 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DeferredPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1", "5000"})
+    int page;
+
+    private ConfigurableApplicationContext context;
+    private MemberTestRepository memberTestRepository;
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        BenchmarkSupport.seed(context, Math.max(BenchmarkSupport.members(), 5_000 * PAGE_SIZE + PAGE_SIZE),
+                BenchmarkSupport.teams());
+
+        memberTestRepository = context.getBean(MemberTestRepository.class);
+        condition = new MemberSearchCondition();
+        pageable = PageRequest.of(page - 1, PAGE_SIZE, Sort.by("age"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> offset() {
+        return memberTestRepository.searchPageDto(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> deferred() {
+        return memberTestRepository.searchPageDeferred(condition, pageable);
+    }
+}
@@ -0,0 +1,75 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.KeysetPage;
+import study.querydsl.dto.MemberKeysetCursor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * offset 페이징 vs 키셋 페이징 - 1페이지와 10,000페이지 조회 시간 비교
+ * 키셋은 페이지 깊이와 무관하게 비슷한 시간이 나와야 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KeysetPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1", "10000"})
+    int page;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        // 10,000 페이지까지 데이터가 있어야 한다
+        BenchmarkSupport.seed(context, Math.max(BenchmarkSupport.members(), 10_000 * PAGE_SIZE + PAGE_SIZE),
+                BenchmarkSupport.teams());
+
+        memberRepository = context.getBean(MemberRepository.class);
+        condition = new MemberSearchCondition();
+
+        if (page > 1) {
+            // (page - 1) 페이지의 마지막 member.id 를 커서로 사용
+            Long lastId = new JPAQueryFactory(context.getBean(EntityManager.class))
+                    .select(member.id)
+                    .from(member)
+                    .orderBy(member.id.asc())
+                    .offset((long) (page - 1) * PAGE_SIZE - 1)
+                    .limit(1)
+                    .fetchOne();
+            cursor = new MemberKeysetCursor(lastId, null).encode();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> offset() {
+        return memberRepository.searchPageSimple(condition, PageRequest.of(page - 1, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public KeysetPage<MemberTeamDto> keyset() {
+        return memberRepository.searchKeyset(condition, cursor, PageRequest.of(0, PAGE_SIZE));
+    }
+}
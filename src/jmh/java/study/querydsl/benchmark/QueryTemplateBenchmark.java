@@ -0,0 +1,54 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동적 쿼리(매번 표현식 생성 + JPQL 직렬화) vs 모양별 캐시된 템플릿(파라미터 바인딩만)
+ * 요청당 CPU 는 avgt, 할당량은 gc.alloc.rate.norm 으로 비교한다.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryTemplateBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MemberTestRepository memberTestRepository;
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        BenchmarkSupport.seed(context, BenchmarkSupport.members(), BenchmarkSupport.teams());
+        memberTestRepository = context.getBean(MemberTestRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+        pageable = PageRequest.of(0, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> dynamic() {
+        return memberTestRepository.searchPageDto(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> template() {
+        return memberTestRepository.searchPageByTemplate(condition, pageable);
+    }
+}
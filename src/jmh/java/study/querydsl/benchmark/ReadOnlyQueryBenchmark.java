@@ -0,0 +1,74 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 엔티티 목록 조회: 일반 트랜잭션 (스냅샷 + 커밋 시 변경 감지) vs 읽기 전용 트랜잭션 + read-only 힌트
+ * gc 프로파일러의 gc.alloc.rate.norm 으로 연산당 할당량을 비교한다.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadOnlyQueryBenchmark {
+
+    private static final int ROWS = 5_000;
+
+    private ConfigurableApplicationContext context;
+    private JPAQueryFactory queryFactory;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        BenchmarkSupport.seed(context, Math.max(BenchmarkSupport.members(), ROWS), BenchmarkSupport.teams());
+
+        queryFactory = new JPAQueryFactory(context.getBean(EntityManager.class));
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int managed() {
+        return readWrite.execute(status -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .limit(ROWS)
+                    .fetch();
+            return members.size();
+        });
+    }
+
+    @Benchmark
+    public int readOnly() {
+        return readOnly.execute(status -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .setHint(QueryHints.READ_ONLY, true)
+                    .setHint(QueryHints.FETCH_SIZE, 500)
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .limit(ROWS)
+                    .fetch();
+            return members.size();
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.web.ColumnarJsonHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page&lt;MemberTeamDto&gt; 직렬화: 기본 JSON (Jackson) vs 컬럼 단위 JSON
+ * 응답 크기는 결과표의 보조 카운터 bytes 로 함께 나온다. (측정 구간 밖에서 따로 직렬화하지 않는다)
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseFormatBenchmark {
+
+    @Param({"20", "1000"})
+    int rows;
+
+    private ObjectMapper objectMapper;
+    private ColumnarJsonHttpMessageConverter columnarConverter;
+    private Page<MemberTeamDto> page;
+    private ByteArrayOutputStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        columnarConverter = new ColumnarJsonHttpMessageConverter(objectMapper);
+
+        List<MemberTeamDto> content = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            content.add(new MemberTeamDto((long) i, "member" + i, i % 100, (long) (i % 10), "team" + (i % 10)));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, rows), rows * 100L);
+        out = new ByteArrayOutputStream(rows * 128);
+    }
+
+    @Benchmark
+    public int json(PayloadSize size) throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, page);
+        size.bytes = out.size();
+        return out.size();
+    }
+
+    @Benchmark
+    public int columnar(PayloadSize size) throws IOException {
+        out.reset();
+        columnarConverter.writeTo(page, out);
+        size.bytes = out.size();
+        return out.size();
+    }
+
+    /**
+     * 마지막 응답 크기 (EVENTS 카운터는 누적하지 않고 값을 그대로 보고한다)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.repository.TeamNameDictionary;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 이름 조건 count: team 조인 + 이름 비교 vs 사전으로 바꾼 member.team_id 조건 (조인 없음)
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TeamFilterBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private JPAQueryFactory queryFactory;
+    private TeamNameDictionary teamNameDictionary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        BenchmarkSupport.seed(context, BenchmarkSupport.members(), BenchmarkSupport.teams());
+
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        teamNameDictionary = context.getBean(TeamNameDictionary.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long countByTeamNameJoin() {
+        return queryFactory
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(team.teamName.eq("team3"))
+                .fetchOne();
+    }
+
+    @Benchmark
+    public Long countByTeamIdDictionary() {
+        List<Long> teamIds = teamNameDictionary.idsOf("team3");
+        return queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.team.id.in(teamIds))
+                .fetchOne();
+    }
+}
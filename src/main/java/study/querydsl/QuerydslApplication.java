@@ -1,9 +1,12 @@
 package study.querydsl;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import study.querydsl.metrics.InstrumentedJPAQueryFactory;
 
 import javax.persistence.EntityManager;
 
@@ -14,11 +17,11 @@ public class QuerydslApplication {
         SpringApplication.run(QuerydslApplication.class, args);
     }
 
-    /*
+    // 리포지토리가 공유하는 JPAQueryFactory (쿼리별 메트릭 수집)
     @Bean
-    public JPAQueryFactory jpaQueryFactory(EntityManager entityManager) {
-        return new JPAQueryFactory(entityManager);
+    public JPAQueryFactory jpaQueryFactory(EntityManager entityManager, MeterRegistry meterRegistry,
+                                           ApplicationEventPublisher eventPublisher) {
+        return new InstrumentedJPAQueryFactory(entityManager, meterRegistry, eventPublisher);
     }
-    */
 
 }
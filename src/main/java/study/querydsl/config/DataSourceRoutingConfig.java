@@ -0,0 +1,58 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import study.querydsl.datasource.LocalReplicaSnapshot;
+import study.querydsl.datasource.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * primary / replica 두 Hikari 풀과 읽기 전용 여부로 둘 중 하나를 고르는 dataSource (datasource.routing.enabled=true 일 때)
+ * 풀별 사용률은 hikaricp.connections.* (pool = primary / replica), jdbc.connections.* metrics 로 나온다.
+ * p6spy 는 두 풀에만 씌우고 dataSource 는 제외한다. (decorator.datasource.exclude-beans, SQL 이 두 번 세지지 않도록)
+ *
+ * @see study.querydsl.datasource.DataSourceRouting
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("datasource.routing.primary")
+    public HikariDataSource primaryDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.routing.replica")
+    public HikariDataSource replicaDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    // p6spy 가 두 풀을 감싸므로 HikariDataSource 가 아니라 DataSource 로 주입 받는다
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "datasource.routing.local-replica-snapshot", havingValue = "true")
+    public LocalReplicaSnapshot localReplicaSnapshot(@Qualifier("primaryDataSource") DataSource primary,
+                                                     @Qualifier("replicaDataSource") DataSource replica) {
+        return new LocalReplicaSnapshot(primary, replica);
+    }
+}
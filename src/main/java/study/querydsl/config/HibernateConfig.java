@@ -0,0 +1,23 @@
+package study.querydsl.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.repository.support.TableWriteInspector;
+import study.querydsl.repository.support.TableWriteListener;
+
+@Configuration
+public class HibernateConfig {
+
+    @Bean
+    public TableWriteInspector tableWriteInspector(ObjectProvider<TableWriteListener> listeners) {
+        return new TableWriteInspector(listeners);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(TableWriteInspector tableWriteInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, tableWriteInspector);
+    }
+}
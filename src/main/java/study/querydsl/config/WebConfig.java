@@ -0,0 +1,36 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.web.ColumnarJsonHttpMessageConverter;
+import study.querydsl.web.ConcurrencyLimitInterceptor;
+import study.querydsl.web.QueryBudgetInterceptor;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private final QueryBudgetInterceptor queryBudgetInterceptor;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 거절된 요청은 다른 인터셉터를 거치지 않도록 먼저 둔다
+        registry.addInterceptor(concurrencyLimitInterceptor);
+        registry.addInterceptor(queryBudgetInterceptor);
+    }
+
+    // 앞에 두면 Accept 가 없거나 */* 인 요청에도 선택되므로 기본 JSON 컨버터 뒤에 둔다
+    // (Jackson 이 지원하지 않는 미디어 타입이라 Accept 로 명시하면 이 컨버터가 쓴다)
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ColumnarJsonHttpMessageConverter(objectMapper));
+    }
+}
@@ -3,45 +3,25 @@ package study.querydsl.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.loader.SyntheticDataLoader;
+import study.querydsl.loader.SyntheticDataProperties;
 
 import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
-import javax.transaction.Transactional;
 
+/**
+ * 로컬 기동 시 샘플 데이터 적재 (규모는 loader.* 설정, 대량 적재는 bulk 프로파일 참고)
+ */
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
 
-    private final InitMemberService initMemberService;
+    private final SyntheticDataLoader syntheticDataLoader;
+    private final SyntheticDataProperties syntheticDataProperties;
 
     @PostConstruct
     public void init() {
-        initMemberService.init();
+        syntheticDataLoader.load(syntheticDataProperties);
     }
 
-    @Component
-    static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
-
-        @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member"+i, i, selectedTeam));
-            }
-        }
-    }
-
-
 }
@@ -1,37 +1,167 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.InvalidSearchParameterException;
+import study.querydsl.dto.KeysetPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCoalescer;
+import study.querydsl.repository.UsernameIndex;
+import study.querydsl.web.BadRequestException;
+import study.querydsl.web.ConcurrencyLimited;
+import study.querydsl.web.QueryBudget;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
+@ConcurrencyLimited
 public class MemberController {
 
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 100;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberSearchCoalescer memberSearchCoalescer;
+    private final UsernameIndex usernameIndex;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * /v1 ~ /v3 은 Accept: application/vnd.querydsl.columnar 이면 컬럼 단위 JSON 으로 응답
+     *
+     * @see study.querydsl.web.ColumnarJsonHttpMessageConverter
+     */
     @GetMapping("/v1/members")
+    @QueryBudget(1)
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.search(condition);
     }
 
+    /**
+     * fields=memberId,username 처럼 요청한 컬럼만 조회 (필요 없으면 team 조인 생략)
+     */
+    @GetMapping(value = "/v1/members", params = "fields")
+    @QueryBudget(1)
+    public List<Map<String, Object>> searchMemberFieldsV1(MemberSearchCondition condition,
+                                                          @RequestParam String fields) {
+        return memberRepository.searchFields(condition, MemberTeamField.parse(fields));
+    }
+
+    /**
+     * 검색 결과 전체를 NDJSON / CSV 로 응답에 바로 흘려 보낸다. (format=ndjson|csv)
+     * 처리 시간이 결과 크기와 클라이언트 속도에 달려 있어 지연으로 한도를 조절할 수 없으므로 동시 처리 한도에서 뺀다.
+     */
+    @GetMapping("/v1/members/export")
+    @QueryBudget(1)
+    @ConcurrencyLimited(false)
+    public void exportMemberV1(MemberSearchCondition condition,
+                               @RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        MemberExportFormat exportFormat = MemberExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+
+        try (MemberExportFormat.RowWriter writer = exportFormat.open(response.getOutputStream(), objectMapper)) {
+            memberJpaRepository.searchStream(condition, EXPORT_FETCH_SIZE, writer::write);
+        }
+    }
+
+    /**
+     * username 자동완성: prefix 로 시작하는 회원을 username 순으로 최대 limit 명 (메모리 인덱스, DB 조회 없음)
+     */
+    @GetMapping("/v1/members/autocomplete")
+    public List<UsernameMatch> autocompleteV1(@RequestParam String prefix,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        if (prefix.isEmpty()) {
+            throw new BadRequestException("prefix must not be empty");
+        }
+        if (limit < 1 || limit > MAX_AUTOCOMPLETE_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_AUTOCOMPLETE_LIMIT);
+        }
+        return usernameIndex.complete(prefix, limit);
+    }
+
     @GetMapping("/v2/members")
+    @QueryBudget(2)
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageSimple(condition, pageable);
     }
 
+    @GetMapping(value = "/v2/members", params = "fields")
+    @QueryBudget(2)
+    public Page<Map<String, Object>> searchMemberFieldsV2(MemberSearchCondition condition,
+                                                          @RequestParam String fields,
+                                                          Pageable pageable) {
+        return memberRepository.searchPageFieldsSimple(condition, MemberTeamField.parse(fields), pageable);
+    }
+
     @GetMapping("/v3/members")
+    @QueryBudget(2)
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchComplex(condition, pageable);
+        return memberSearchCoalescer.searchComplex(condition, pageable);
+    }
+
+    @GetMapping(value = "/v3/members", params = "fields")
+    @QueryBudget(2)
+    public Page<Map<String, Object>> searchMemberFieldsV3(MemberSearchCondition condition,
+                                                          @RequestParam String fields,
+                                                          Pageable pageable) {
+        return memberSearchCoalescer.searchPageFields(condition, MemberTeamField.parse(fields), pageable);
+    }
+
+    @GetMapping("/v4/members")
+    @QueryBudget(1)
+    public KeysetPage<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    Pageable pageable) {
+        return memberRepository.searchKeyset(condition, cursor, pageable);
+    }
+
+    /**
+     * 전체 건수 없이 다음 페이지 존재 여부만 응답 (무한 스크롤, count 쿼리 없음)
+     */
+    @GetMapping("/v5/members")
+    @QueryBudget(1)
+    public Slice<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    /**
+     * 전체 건수는 통계 기반 추정값과 오차 범위 (exact / lowerBound / upperBound)
+     * exactCount=true 일 때만 count 쿼리를 실행한다.
+     */
+    @GetMapping("/v6/members")
+    @QueryBudget(2)
+    public ApproximatePage<MemberTeamDto> searchMemberV6(MemberSearchCondition condition,
+                                                         @RequestParam(defaultValue = "false") boolean exactCount,
+                                                         Pageable pageable) {
+        return memberRepository.searchApproximate(condition, pageable, exactCount);
+    }
+
+    // 잘못된 fields / format / cursor / sort / 자동완성 파라미터
+    @ExceptionHandler({BadRequestException.class, InvalidSearchParameterException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("message", String.valueOf(e.getMessage()));
     }
 
 }
@@ -0,0 +1,116 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.web.BadRequestException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 회원 검색 결과 내보내기 형식
+ * 응답 스트림에 한 줄씩 바로 쓴다.
+ */
+public enum MemberExportFormat {
+
+    NDJSON("application/x-ndjson") {
+        @Override
+        RowWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            // 줄바꿈은 행마다 직접 쓴다 (결과가 없으면 빈 본문)
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            return new RowWriter() {
+                @Override
+                void writeRow(MemberTeamDto row) throws IOException {
+                    generator.writeObject(row);
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    generator.close();
+                }
+            };
+        }
+    },
+
+    CSV("text/csv") {
+        @Override
+        RowWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("memberId,username,age,teamId,teamName\n");
+            return new RowWriter() {
+                @Override
+                void writeRow(MemberTeamDto row) throws IOException {
+                    writer.write(String.valueOf(row.getMemberId()));
+                    writer.write(',');
+                    writer.write(escape(row.getUsername()));
+                    writer.write(',');
+                    writer.write(Integer.toString(row.getAge()));
+                    writer.write(',');
+                    writer.write(row.getTeamId() == null ? "" : row.getTeamId().toString());
+                    writer.write(',');
+                    writer.write(escape(row.getTeamName()));
+                    writer.write('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writer.close();
+                }
+            };
+        }
+    };
+
+    private final String contentType;
+
+    MemberExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static MemberExportFormat from(String format) {
+        for (MemberExportFormat exportFormat : values()) {
+            if (exportFormat.name().equals(format.toUpperCase(Locale.ROOT))) {
+                return exportFormat;
+            }
+        }
+        throw new BadRequestException("Unknown export format: " + format);
+    }
+
+    abstract RowWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException;
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    abstract static class RowWriter implements Closeable {
+
+        abstract void writeRow(MemberTeamDto row) throws IOException;
+
+        void write(MemberTeamDto row) {
+            try {
+                writeRow(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.repository.TeamStatistics;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatistics teamStatistics;
+
+    /**
+     * 팀별 회원 수, 나이 합계 / 평균 / 최소 / 최대 (미리 유지한 집계로 응답, 회원 테이블을 읽지 않는다)
+     */
+    @GetMapping("/teams/statistics")
+    public List<TeamStatisticsDto> statistics() {
+        return teamStatistics.statistics();
+    }
+}
@@ -0,0 +1,8 @@
+package study.querydsl.datasource;
+
+/**
+ * 커넥션을 가져올 풀
+ */
+public enum DataSourceRoute {
+    PRIMARY, REPLICA
+}
@@ -0,0 +1,58 @@
+package study.querydsl.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드가 커넥션을 가져올 풀 결정
+ * - 트랜잭션 안: 읽기 전용 트랜잭션이면 replica, 읽기/쓰기 트랜잭션이면 primary
+ *   (읽기 전용 메서드가 읽기/쓰기 트랜잭션에 참여하면 바깥 트랜잭션을 따라 primary)
+ * - 트랜잭션 밖: {@link ReplicaRead} / {@link #call} 로 지정한 풀, 없으면 primary
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<DataSourceRoute> ROUTE = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static DataSourceRoute current() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    ? DataSourceRoute.REPLICA
+                    : DataSourceRoute.PRIMARY;
+        }
+        DataSourceRoute route = ROUTE.get();
+        return route != null ? route : DataSourceRoute.PRIMARY;
+    }
+
+    /**
+     * 트랜잭션 밖에서 실행되는 action 의 커넥션을 route 풀에서 가져온다.
+     */
+    public static <T> T call(DataSourceRoute route, Supplier<T> action) {
+        DataSourceRoute previous = enter(route);
+        try {
+            return action.get();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    /**
+     * @return 이전 값, {@link #exit} 로 되돌린다
+     */
+    public static DataSourceRoute enter(DataSourceRoute route) {
+        DataSourceRoute previous = ROUTE.get();
+        ROUTE.set(route);
+        return previous;
+    }
+
+    public static void exit(DataSourceRoute previous) {
+        if (previous == null) {
+            ROUTE.remove();
+        } else {
+            ROUTE.set(previous);
+        }
+    }
+}
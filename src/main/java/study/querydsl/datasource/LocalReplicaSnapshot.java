@@ -0,0 +1,35 @@
+package study.querydsl.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 로컬(H2) replica 용: 기동이 끝나면 primary 의 스키마와 데이터를 replica 로 복사한다.
+ * 복제는 흉내 내지 않으므로 이후 primary 쓰기는 {@link #refresh()} 전까지 replica 에 보이지 않는다. (복제 지연)
+ */
+@Slf4j
+public class LocalReplicaSnapshot {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+
+    public LocalReplicaSnapshot(DataSource primary, DataSource replica) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : script) {
+            replica.execute(statement);
+        }
+        log.info("copied primary to replica ({} statements)", script.size());
+    }
+}
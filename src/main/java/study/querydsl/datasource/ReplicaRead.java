@@ -0,0 +1,19 @@
+package study.querydsl.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 트랜잭션 없이 실행되는 조회를 replica 풀로 보낸다.
+ * 읽기/쓰기 트랜잭션 안에서 호출되면 자기 쓰기를 읽을 수 있도록 primary 를 그대로 쓴다.
+ *
+ * @see DataSourceRouting
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReplicaRead {
+}
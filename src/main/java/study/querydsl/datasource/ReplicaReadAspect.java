@@ -0,0 +1,24 @@
+package study.querydsl.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link ReplicaRead} 메서드 실행 동안 트랜잭션 밖 커넥션을 replica 풀에서 가져온다.
+ */
+@Aspect
+@Component
+public class ReplicaReadAspect {
+
+    @Around("@annotation(study.querydsl.datasource.ReplicaRead) || @within(study.querydsl.datasource.ReplicaRead)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        DataSourceRoute previous = DataSourceRouting.enter(DataSourceRoute.REPLICA);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            DataSourceRouting.exit(previous);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * {@link DataSourceRouting#current()} 로 primary / replica 풀을 고르는 DataSource
+ * 트랜잭션 시작 시점에는 읽기 전용 여부가 아직 동기화되지 않으므로 반드시 LazyConnectionDataSourceProxy 로 감싸서
+ * 첫 SQL 실행 시점에 커넥션을 고르게 한다.
+ * 풀 선택 횟수는 datasource.route (target = primary / replica)
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<DataSourceRoute, Counter> routed = new EnumMap<>(DataSourceRoute.class);
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new EnumMap<>(DataSourceRoute.class);
+        targets.put(DataSourceRoute.PRIMARY, primary);
+        targets.put(DataSourceRoute.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        for (DataSourceRoute route : DataSourceRoute.values()) {
+            routed.put(route, Counter.builder("datasource.route")
+                    .tag("target", route.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        DataSourceRoute route = DataSourceRouting.current();
+        routed.get(route).increment();
+        return route;
+    }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 전체 건수(totalElements)가 추정값일 수 있는 페이지
+ * exact 가 false 면 실제 건수는 lowerBound ~ upperBound 사이다.
+ */
+public class ApproximatePage<T> extends PageImpl<T> {
+
+    private final transient CountEstimate count;
+
+    private ApproximatePage(List<T> content, Pageable pageable, CountEstimate count) {
+        super(content, pageable, count.getEstimate());
+        this.count = count;
+    }
+
+    /**
+     * 마지막 페이지처럼 content 만으로 전체 건수를 알 수 있으면 추정하지 않는다. (PageableExecutionUtils 와 같은 규칙)
+     */
+    public static <T> ApproximatePage<T> of(List<T> content, Pageable pageable, Supplier<CountEstimate> count) {
+        if (pageable.isUnpaged()) {
+            return new ApproximatePage<>(content, pageable, CountEstimate.exact(content.size()));
+        }
+
+        long known = pageable.getOffset() + content.size();
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            return new ApproximatePage<>(content, pageable, CountEstimate.exact(known));
+        }
+        return new ApproximatePage<>(content, pageable, count.get().atLeast(known));
+    }
+
+    public boolean isExact() {
+        return count.isExact();
+    }
+
+    public long getLowerBound() {
+        return count.getLowerBound();
+    }
+
+    public long getUpperBound() {
+        return count.getUpperBound();
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 추정 전체 건수와 오차 범위 (실제 건수는 lowerBound ~ upperBound 사이)
+ * exact 면 세 값이 모두 같다.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CountEstimate {
+
+    private final long estimate;
+    private final long lowerBound;
+    private final long upperBound;
+    private final boolean exact;
+
+    public static CountEstimate exact(long count) {
+        return new CountEstimate(count, count, count, true);
+    }
+
+    public static CountEstimate of(long estimate, long lowerBound, long upperBound) {
+        return new CountEstimate(estimate, lowerBound, upperBound, false);
+    }
+
+    /**
+     * 최소 known 건은 있다는 사실(예: 이미 읽은 페이지)을 반영
+     */
+    public CountEstimate atLeast(long known) {
+        if (exact || lowerBound >= known) {
+            return this;
+        }
+        return new CountEstimate(Math.max(estimate, known), known, Math.max(upperBound, known), false);
+    }
+}
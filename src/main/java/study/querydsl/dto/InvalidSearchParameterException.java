@@ -0,0 +1,16 @@
+package study.querydsl.dto;
+
+/**
+ * 검색 파라미터(fields, cursor, sort)가 잘못됨
+ * 내부 오류의 IllegalArgumentException 과 구분하기 위한 예외로, 웹 계층에서 400 으로 응답한다.
+ */
+public class InvalidSearchParameterException extends IllegalArgumentException {
+
+    public InvalidSearchParameterException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchParameterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,71 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 키셋 페이징 커서
+ * 마지막 member.id 와 (정렬 중이라면) 마지막 정렬 키를 URL-safe Base64 문자열로 감싼다.
+ * 마지막 정렬 키가 null 이면 키 대신 null 표시를 남긴다. (정렬 키가 없는 커서와 구분)
+ */
+@Getter
+public class MemberKeysetCursor {
+
+    private static final String SEPARATOR = ":";
+    private static final String NULL_KEY = "!";
+
+    private final Long lastId;
+    private final String lastKey;
+    private final boolean nullKey;
+
+    public MemberKeysetCursor(Long lastId, String lastKey) {
+        this(lastId, lastKey, false);
+    }
+
+    private MemberKeysetCursor(Long lastId, String lastKey, boolean nullKey) {
+        this.lastId = lastId;
+        this.lastKey = lastKey;
+        this.nullKey = nullKey;
+    }
+
+    /**
+     * 마지막 정렬 키가 null 인 커서
+     */
+    public static MemberKeysetCursor ofNullKey(Long lastId) {
+        return new MemberKeysetCursor(lastId, null, true);
+    }
+
+    public String encode() {
+        String raw;
+        if (nullKey) {
+            raw = lastId + NULL_KEY;
+        } else {
+            raw = lastKey == null ? String.valueOf(lastId) : lastId + SEPARATOR + lastKey;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberKeysetCursor decode(String cursor) {
+        if (!hasText(cursor)) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                if (raw.endsWith(NULL_KEY)) {
+                    return ofNullKey(Long.valueOf(raw.substring(0, raw.length() - NULL_KEY.length())));
+                }
+                return new MemberKeysetCursor(Long.valueOf(raw), null);
+            }
+            return new MemberKeysetCursor(Long.valueOf(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchParameterException("Invalid keyset cursor: " + cursor, e);
+        }
+    }
+}
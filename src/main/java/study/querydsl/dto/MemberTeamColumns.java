@@ -0,0 +1,206 @@
+package study.querydsl.dto;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 컬럼 단위(기본 타입 배열)로 저장한 회원 검색 결과
+ * row 마다 객체를 만들지 않으므로 List&lt;MemberTeamDto&gt; 보다 훨씬 작다. (대량 조회, 분석/내보내기 용도)
+ * 팀 이름은 사전(teamNames) + 코드 배열로 저장한다.
+ *
+ * 조회는 인덱스 접근자 또는 재사용되는 {@link Row} 뷰로 한다.
+ */
+public class MemberTeamColumns {
+
+    public static final long NO_TEAM = -1L;
+    private static final int NO_TEAM_NAME = -1;
+
+    private final int size;
+    private final long[] memberIds;
+    private final String[] usernames;
+    private final int[] ages;
+    private final long[] teamIds;
+    private final int[] teamNameCodes;
+    private final String[] teamNames;
+
+    private MemberTeamColumns(int size, long[] memberIds, String[] usernames, int[] ages,
+                              long[] teamIds, int[] teamNameCodes, String[] teamNames) {
+        this.size = size;
+        this.memberIds = memberIds;
+        this.usernames = usernames;
+        this.ages = ages;
+        this.teamIds = teamIds;
+        this.teamNameCodes = teamNameCodes;
+        this.teamNames = teamNames;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memberIdAt(int index) {
+        return memberIds[checkIndex(index)];
+    }
+
+    public String usernameAt(int index) {
+        return usernames[checkIndex(index)];
+    }
+
+    public int ageAt(int index) {
+        return ages[checkIndex(index)];
+    }
+
+    /**
+     * @return 팀 id, 팀이 없으면 {@link #NO_TEAM}
+     */
+    public long teamIdAt(int index) {
+        return teamIds[checkIndex(index)];
+    }
+
+    public String teamNameAt(int index) {
+        int code = teamNameCodes[checkIndex(index)];
+        return code == NO_TEAM_NAME ? null : teamNames[code];
+    }
+
+    /**
+     * @return 팀 이름 사전 코드 ({@link #teamNameOf}), 팀 이름이 없으면 -1
+     */
+    public int teamNameCodeAt(int index) {
+        return teamNameCodes[checkIndex(index)];
+    }
+
+    public String teamNameOf(int code) {
+        return teamNames[code];
+    }
+
+    /**
+     * 서로 다른 팀 이름 수 (사전 크기)
+     */
+    public int teamNameCount() {
+        return teamNames.length;
+    }
+
+    public MemberTeamDto toDto(int index) {
+        long teamId = teamIdAt(index);
+        return new MemberTeamDto(memberIdAt(index), usernameAt(index), ageAt(index),
+                teamId == NO_TEAM ? null : teamId, teamNameAt(index));
+    }
+
+    /**
+     * 모든 row 를 같은 Row 객체 하나로 순회 (row 마다 할당 없음)
+     * Row 는 다음 row 로 넘어가면 값이 바뀌므로 보관하지 않는다.
+     */
+    public Row row() {
+        return new Row();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    /**
+     * 위치만 바꿔 가며 재사용하는 row 뷰
+     */
+    public class Row {
+
+        private int index = -1;
+
+        public boolean next() {
+            if (index + 1 >= size) {
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        public Row moveTo(int index) {
+            this.index = checkIndex(index);
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getMemberId() {
+            return memberIds[index];
+        }
+
+        public String getUsername() {
+            return usernames[index];
+        }
+
+        public int getAge() {
+            return ages[index];
+        }
+
+        public long getTeamId() {
+            return teamIds[index];
+        }
+
+        public String getTeamName() {
+            return teamNameAt(index);
+        }
+    }
+
+    public static class Builder {
+
+        private int size;
+        private long[] memberIds = new long[16];
+        private String[] usernames = new String[16];
+        private int[] ages = new int[16];
+        private long[] teamIds = new long[16];
+        private int[] teamNameCodes = new int[16];
+        private final Map<String, Integer> teamNameCodeMap = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(long memberId, String username, int age, Long teamId, String teamName) {
+            if (size == memberIds.length) {
+                grow();
+            }
+            memberIds[size] = memberId;
+            usernames[size] = username;
+            ages[size] = age;
+            teamIds[size] = teamId == null ? NO_TEAM : teamId;
+            teamNameCodes[size] = teamName == null
+                    ? NO_TEAM_NAME
+                    : teamNameCodeMap.computeIfAbsent(teamName, name -> teamNameCodeMap.size());
+            size++;
+            return this;
+        }
+
+        /**
+         * 배열을 실제 크기로 줄여서 만든다.
+         */
+        public MemberTeamColumns build() {
+            String[] teamNames = new String[teamNameCodeMap.size()];
+            teamNameCodeMap.forEach((name, code) -> teamNames[code] = name);
+            return new MemberTeamColumns(size,
+                    Arrays.copyOf(memberIds, size),
+                    Arrays.copyOf(usernames, size),
+                    Arrays.copyOf(ages, size),
+                    Arrays.copyOf(teamIds, size),
+                    Arrays.copyOf(teamNameCodes, size),
+                    teamNames);
+        }
+
+        private void grow() {
+            int capacity = memberIds.length + (memberIds.length >> 1);
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            teamIds = Arrays.copyOf(teamIds, capacity);
+            teamNameCodes = Arrays.copyOf(teamNameCodes, capacity);
+        }
+    }
+}
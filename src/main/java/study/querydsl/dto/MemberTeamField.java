@@ -0,0 +1,58 @@
+package study.querydsl.dto;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 회원 검색 응답에서 고를 수 있는 컬럼 (fields=memberId,username,...)
+ * 이름은 {@link MemberTeamDto} 프로퍼티와 같다.
+ */
+public enum MemberTeamField {
+
+    MEMBER_ID("memberId"),
+    USERNAME("username"),
+    AGE("age"),
+    TEAM_ID("teamId"),
+    TEAM_NAME("teamName");
+
+    private final String fieldName;
+
+    MemberTeamField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public static MemberTeamField from(String fieldName) {
+        for (MemberTeamField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new InvalidSearchParameterException("Unknown member field: " + fieldName);
+    }
+
+    /**
+     * 쉼표로 구분된 필드 이름 목록, 비어 있으면 전체 필드
+     * 결과 순서는 요청 순서와 관계없이 선언 순서
+     */
+    public static Set<MemberTeamField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Collections.unmodifiableSet(EnumSet.allOf(MemberTeamField.class));
+        }
+
+        EnumSet<MemberTeamField> parsed = EnumSet.noneOf(MemberTeamField.class);
+        for (String fieldName : fields.split(",")) {
+            if (!fieldName.isBlank()) {
+                parsed.add(from(fieldName.trim()));
+            }
+        }
+        if (parsed.isEmpty()) {
+            return Collections.unmodifiableSet(EnumSet.allOf(MemberTeamField.class));
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 팀별 회원 나이 집계 (회원이 없는 팀은 count 0, 나머지는 null)
+ */
+@Data
+public class TeamStatisticsDto {
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private long sum;
+    private Double avg;
+    private Integer min;
+    private Integer max;
+
+    public TeamStatisticsDto(Long teamId, String teamName, long count, long sum, Integer min, Integer max) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = count == 0 ? null : (double) sum / count;
+        this.min = min;
+        this.max = max;
+    }
+}
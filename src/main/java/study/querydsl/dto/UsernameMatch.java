@@ -0,0 +1,9 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class UsernameMatch {
+    private final Long memberId;
+    private final String username;
+}
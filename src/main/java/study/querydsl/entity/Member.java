@@ -10,10 +10,18 @@ import javax.persistence.*;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = {
+        // 키셋 페이징 (정렬 키, member_id) 용 인덱스
+        @Index(name = "idx_member_age_id", columnList = "age, member_id"),
+        @Index(name = "idx_member_username_id", columnList = "username, member_id")
+})
 public class Member {
 
+    // 시퀀스를 50개 단위로 미리 할당(pooled) 받아 insert 마다 시퀀스 조회를 하지 않는다
+    // ddl-auto: create 가 아닌 기존 DB 는 member_seq / team_seq 를 max(id) + 1 부터 increment 50 으로 먼저 만들어야 한다
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -0,0 +1,182 @@
+package study.querydsl.loader;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 대량 회원/팀 데이터 생성기
+ * batchSize 단위로 persist -> flush -> clear 후 커밋한다.
+ * (hibernate.jdbc.batch_size 로 JDBC 배치 insert, 시퀀스는 pooled 할당)
+ * writer 가 여러 개면 회원 구간을 나눠 각자 트랜잭션으로 넣는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SyntheticDataLoader {
+
+    private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
+
+    public LoadReport load(SyntheticDataProperties properties) {
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        long[] teamIds = transactionTemplate.execute(status -> persistTeams(properties));
+
+        int writers = Math.max(1, properties.getWriters());
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>(writers);
+            for (int writer = 0; writer < writers; writer++) {
+                long from = properties.getMembers() * writer / writers;
+                long to = properties.getMembers() * (writer + 1) / writers;
+                SplittableRandom random = new SplittableRandom(properties.getSeed() + writer);
+                futures.add(executor.submit(() -> persistMembers(transactionTemplate, properties, teamIds, from, to, random)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data load interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic data load failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LoadReport report = new LoadReport(teamIds.length, properties.getMembers(), System.nanoTime() - start);
+        log.info("Loaded {} teams and {} members in {} ms ({} rows/s, {} writers)",
+                report.getTeams(), report.getMembers(), report.getElapsedMillis(), report.getRowsPerSecond(), writers);
+        return report;
+    }
+
+    private long[] persistTeams(SyntheticDataProperties properties) {
+        List<String> teamNames = properties.getTeamNames();
+        long[] teamIds = new long[properties.getTeams()];
+        for (int i = 0; i < teamIds.length; i++) {
+            Team team = new Team(i < teamNames.size() ? teamNames.get(i) : "team" + i);
+            em.persist(team);
+            teamIds[i] = team.getId();
+        }
+        return teamIds;
+    }
+
+    private void persistMembers(TransactionTemplate transactionTemplate, SyntheticDataProperties properties,
+                                long[] teamIds, long from, long to, SplittableRandom random) {
+        UsernameGenerator usernames = new UsernameGenerator(properties, random);
+        AgeGenerator ages = new AgeGenerator(properties, random);
+
+        for (long chunkStart = from; chunkStart < to; chunkStart += properties.getBatchSize()) {
+            long chunkFrom = chunkStart;
+            long chunkTo = Math.min(to, chunkStart + properties.getBatchSize());
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (long i = chunkFrom; i < chunkTo; i++) {
+                    Member member = new Member(usernames.next(i), ages.next(i));
+                    if (teamIds.length > 0) {
+                        // changeTeam 은 team.members 컬렉션을 초기화하므로 참조만 걸어준다
+                        member.setTeam(em.getReference(Team.class, teamIds[(int) (i % teamIds.length)]));
+                    }
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+
+    @Getter
+    public static class LoadReport {
+        private final int teams;
+        private final long members;
+        private final long elapsedNanos;
+
+        public LoadReport(int teams, long members, long elapsedNanos) {
+            this.teams = teams;
+            this.members = members;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        public long getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (long) ((teams + members) * 1_000_000_000.0 / elapsedNanos);
+        }
+    }
+
+    private static class UsernameGenerator {
+        private final SplittableRandom random;
+        private final double[] cumulative;
+
+        private UsernameGenerator(SyntheticDataProperties properties, SplittableRandom random) {
+            this.random = random;
+            this.cumulative = properties.getUsernameCardinality() > 0
+                    ? zipf(properties.getUsernameCardinality(), properties.getUsernameSkew())
+                    : null;
+        }
+
+        private String next(long sequence) {
+            if (cumulative == null) {
+                return "member" + sequence;
+            }
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return "member" + (index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1));
+        }
+
+        private static double[] zipf(int cardinality, double skew) {
+            double[] cumulative = new double[cardinality];
+            double sum = 0;
+            for (int rank = 0; rank < cardinality; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, skew);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < cardinality; rank++) {
+                cumulative[rank] /= sum;
+            }
+            return cumulative;
+        }
+    }
+
+    private static class AgeGenerator {
+        private final SyntheticDataProperties properties;
+        private final SplittableRandom random;
+
+        private AgeGenerator(SyntheticDataProperties properties, SplittableRandom random) {
+            this.properties = properties;
+            this.random = random;
+        }
+
+        private int next(long sequence) {
+            if (properties.getAgeDistribution() == SyntheticDataProperties.AgeDistribution.SEQUENTIAL) {
+                // 회원이 많아도 ageMin ~ ageMax 를 돌아가며 쓴다 (나이 범위 조건이 의미 있도록)
+                return (int) (properties.getAgeMin() + sequence % (properties.getAgeMax() - properties.getAgeMin() + 1));
+            }
+            if (properties.getAgeDistribution() == SyntheticDataProperties.AgeDistribution.UNIFORM) {
+                return random.nextInt(properties.getAgeMin(), properties.getAgeMax() + 1);
+            }
+            // Box-Muller
+            double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+            long age = Math.round(properties.getAgeMean() + properties.getAgeStddev() * gaussian);
+            return (int) Math.max(properties.getAgeMin(), Math.min(properties.getAgeMax(), age));
+        }
+    }
+}
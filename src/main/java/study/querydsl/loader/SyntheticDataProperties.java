@@ -0,0 +1,65 @@
+package study.querydsl.loader;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 가짜 회원/팀 데이터 생성 설정 (loader.*)
+ * 기본값은 예전 InitMember 와 같은 규모 (팀 2개, 회원 100명)
+ * 로컬 기동 데이터의 팀 이름(teamA, teamB)과 나이(순번)는 application.yml 에서 지정한다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "loader")
+public class SyntheticDataProperties {
+
+    public enum AgeDistribution {
+        /**
+         * 회원 순번을 ageMin ~ ageMax 로 돌려서 나이로 (기본 범위면 member0 은 0살, member1 은 1살, ..., member100 은 다시 0살)
+         */
+        SEQUENTIAL, UNIFORM, NORMAL
+    }
+
+    private long members = 100;
+    private int teams = 2;
+
+    /**
+     * 앞쪽 팀부터 붙일 이름, 모자라면 team0, team1, ... 처럼 순번으로 짓는다.
+     */
+    private List<String> teamNames = new ArrayList<>();
+
+    private AgeDistribution ageDistribution = AgeDistribution.UNIFORM;
+    private int ageMin = 0;
+    private int ageMax = 99;
+    private double ageMean = 40;
+    private double ageStddev = 15;
+
+    /**
+     * 0 이면 회원마다 다른 이름 (member0, member1, ...)
+     * 0 보다 크면 이 개수의 이름 중에서 Zipf 분포로 뽑는다.
+     */
+    private int usernameCardinality = 0;
+
+    /**
+     * Zipf 지수. 0 이면 균등, 클수록 소수의 이름에 몰린다.
+     */
+    private double usernameSkew = 1.0;
+
+    /**
+     * flush / clear 주기이자 트랜잭션 하나의 크기 (hibernate.jdbc.batch_size 와 맞춘다)
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 병렬 writer 수
+     */
+    private int writers = 1;
+
+    private long seed = 42;
+}
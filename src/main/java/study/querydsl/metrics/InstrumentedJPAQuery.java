@@ -0,0 +1,93 @@
+package study.querydsl.metrics;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 실행 시간(querydsl.query)과 반환 row 수(querydsl.query.rows)를 기록하는 JPAQuery
+ * 태그: method = 호출한 리포지토리 메서드, operation = fetch / fetchOne / count / results
+ */
+public class InstrumentedJPAQuery<T> extends JPAQuery<T> {
+
+    private final transient MeterRegistry meterRegistry;
+
+    public InstrumentedJPAQuery(EntityManager entityManager, MeterRegistry meterRegistry) {
+        super(entityManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    private InstrumentedJPAQuery(EntityManager entityManager, JPQLTemplates templates, QueryMetadata metadata,
+                                 MeterRegistry meterRegistry) {
+        super(entityManager, templates, metadata);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * clone() / clone(EntityManager) 도 이 메서드를 거치므로 복사본(다른 EntityManager 의 count 쿼리 등)도 기록한다.
+     */
+    @Override
+    public InstrumentedJPAQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+        InstrumentedJPAQuery<T> query = new InstrumentedJPAQuery<>(entityManager, templates, getMetadata().clone(),
+                meterRegistry);
+        query.clone(this);
+        return query;
+    }
+
+    @Override
+    public List<T> fetch() {
+        List<T> result = record("fetch", super::fetch);
+        recordRows(result.size());
+        return result;
+    }
+
+    @Override
+    public T fetchOne() {
+        T result = record("fetchOne", super::fetchOne);
+        recordRows(result != null ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public long fetchCount() {
+        return record("count", super::fetchCount);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public QueryResults<T> fetchResults() {
+        QueryResults<T> result = record("results", super::fetchResults);
+        recordRows(result.getResults().size());
+        return result;
+    }
+
+    private <R> R record(String operation, Supplier<R> query) {
+        String previous = QueryMetricsContext.enterOperation(operation);
+        try {
+            return Timer.builder("querydsl.query")
+                    .tag("method", QueryMetricsContext.method())
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(query);
+        } finally {
+            QueryMetricsContext.exitOperation(previous);
+        }
+    }
+
+    private void recordRows(int rows) {
+        DistributionSummary.builder("querydsl.query.rows")
+                .tag("method", QueryMetricsContext.method())
+                .register(meterRegistry)
+                .record(rows);
+    }
+}
@@ -0,0 +1,122 @@
+package study.querydsl.metrics;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAInsertClause;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import study.querydsl.repository.support.BulkWriteEvent;
+
+import javax.persistence.EntityManager;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 모든 select 쿼리를 {@link InstrumentedJPAQuery} 로 만드는 JPAQueryFactory
+ * 리포지토리들이 공유하는 단일 빈으로 등록한다.
+ * 벌크 update / delete / insert 실행 후에는 {@link BulkWriteEvent} 를 발행한다.
+ */
+public class InstrumentedJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InstrumentedJPAQueryFactory(EntityManager entityManager, MeterRegistry meterRegistry,
+                                       ApplicationEventPublisher eventPublisher) {
+        super(entityManager);
+        this.entityManager = entityManager;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new InstrumentedJPAQuery<Void>(entityManager, meterRegistry);
+    }
+
+    /**
+     * set 한 프로퍼티를 이벤트에 담아 username 처럼 특정 프로퍼티만 보는 쪽이 무관한 update 를 거를 수 있게 한다.
+     */
+    @Override
+    public JPAUpdateClause update(EntityPath<?> path) {
+        Set<String> updatedProperties = new HashSet<>();
+        return new JPAUpdateClause(entityManager, path) {
+            @Override
+            public <T> JPAUpdateClause set(Path<T> property, T value) {
+                updatedProperties.add(rootPropertyOf(property));
+                return super.set(property, value);
+            }
+
+            @Override
+            public <T> JPAUpdateClause set(Path<T> property, Expression<? extends T> expression) {
+                updatedProperties.add(rootPropertyOf(property));
+                return super.set(property, expression);
+            }
+
+            @Override
+            public <T> JPAUpdateClause setNull(Path<T> property) {
+                updatedProperties.add(rootPropertyOf(property));
+                return super.setNull(property);
+            }
+
+            @Override
+            public JPAUpdateClause set(List<? extends Path<?>> properties, List<?> values) {
+                for (Path<?> property : properties) {
+                    updatedProperties.add(rootPropertyOf(property));
+                }
+                return super.set(properties, values);
+            }
+
+            @Override
+            public long execute() {
+                long affectedRows = super.execute();
+                eventPublisher.publishEvent(
+                        new BulkWriteEvent(path.getType(), affectedRows, Set.copyOf(updatedProperties)));
+                return affectedRows;
+            }
+        };
+    }
+
+    @Override
+    public JPADeleteClause delete(EntityPath<?> path) {
+        return new JPADeleteClause(entityManager, path) {
+            @Override
+            public long execute() {
+                return published(path, super.execute());
+            }
+        };
+    }
+
+    @Override
+    public JPAInsertClause insert(EntityPath<?> path) {
+        return new JPAInsertClause(entityManager, path) {
+            @Override
+            public long execute() {
+                return published(path, super.execute());
+            }
+        };
+    }
+
+    private long published(EntityPath<?> path, long affectedRows) {
+        eventPublisher.publishEvent(new BulkWriteEvent(path.getType(), affectedRows));
+        return affectedRows;
+    }
+
+    // member.address.city 처럼 임베디드 값이면 루트 바로 아래 프로퍼티 (address)
+    private static String rootPropertyOf(Path<?> property) {
+        Path<?> current = property;
+        Path<?> parent = current.getMetadata().getParent();
+        while (parent != null && parent.getMetadata().getParent() != null) {
+            current = parent;
+            parent = current.getMetadata().getParent();
+        }
+        return current.getMetadata().getName();
+    }
+}
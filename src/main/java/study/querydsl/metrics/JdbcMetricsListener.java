@@ -0,0 +1,32 @@
+package study.querydsl.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 로 감싼 DataSource 에서 실행된 SQL 문 수와 JDBC 실행 시간 (jdbc.statement)
+ * 어떤 리포지토리 메서드의 어떤 쿼리(content / count)에서 나왔는지 태그로 남긴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcMetricsListener extends SimpleJdbcEventListener {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        Timer.builder("jdbc.statement")
+                .tag("method", QueryMetricsContext.method())
+                .tag("operation", QueryMetricsContext.operation())
+                .tag("outcome", e == null ? "success" : "error")
+                .register(meterRegistry)
+                .record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,92 @@
+package study.querydsl.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드에서 실행 중인 리포지토리 메서드와 쿼리 종류 (메트릭 태그 용도)
+ * JDBC 레벨 메트릭도 이 값을 보고 어느 메서드의 content / count 쿼리인지 구분한다.
+ * 다른 스레드에서 실행하는 작업(동시 count 쿼리 등)은 {@link #capture} 한 값을 {@link #call} 로 넘긴다.
+ */
+public final class QueryMetricsContext {
+
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<String> METHOD = new ThreadLocal<>();
+    private static final ThreadLocal<String> OPERATION = new ThreadLocal<>();
+
+    private QueryMetricsContext() {
+    }
+
+    public static String method() {
+        String method = METHOD.get();
+        return method != null ? method : NONE;
+    }
+
+    public static String operation() {
+        String operation = OPERATION.get();
+        return operation != null ? operation : NONE;
+    }
+
+    /**
+     * 현재 스레드의 메서드 / 쿼리 종류 (다른 스레드로 넘길 때)
+     */
+    public static Snapshot capture() {
+        return new Snapshot(METHOD.get(), OPERATION.get());
+    }
+
+    /**
+     * work 를 snapshot 의 메서드 / 쿼리 종류로 실행한다. (다른 스레드에서 호출한 쪽의 메서드로 기록할 때)
+     */
+    public static <T> T call(Snapshot snapshot, Supplier<T> work) {
+        String previousMethod = enterMethod(snapshot.method);
+        String previousOperation = enterOperation(snapshot.operation);
+        try {
+            return work.get();
+        } finally {
+            exitOperation(previousOperation);
+            exitMethod(previousMethod);
+        }
+    }
+
+    /**
+     * @return 이전 값 (중첩 호출 후 복원용)
+     */
+    static String enterMethod(String method) {
+        String previous = METHOD.get();
+        METHOD.set(method);
+        return previous;
+    }
+
+    static void exitMethod(String previous) {
+        if (previous == null) {
+            METHOD.remove();
+        } else {
+            METHOD.set(previous);
+        }
+    }
+
+    static String enterOperation(String operation) {
+        String previous = OPERATION.get();
+        OPERATION.set(operation);
+        return previous;
+    }
+
+    static void exitOperation(String previous) {
+        if (previous == null) {
+            OPERATION.remove();
+        } else {
+            OPERATION.set(previous);
+        }
+    }
+
+    public static final class Snapshot {
+
+        private final String method;
+        private final String operation;
+
+        private Snapshot(String method, String operation) {
+            this.method = method;
+            this.operation = operation;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.KeysetPage;
+
+import java.util.Collection;
+
+/**
+ * 리포지토리 메서드 단위 지연 시간(repository.method)과 반환 row 수(repository.method.rows)
+ * 실행 중인 메서드 이름을 {@link QueryMetricsContext} 에 올려 쿼리/JDBC 메트릭의 method 태그로 쓴다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(study.querydsl.repository.*Repository*) && execution(public * *(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getTarget().getClass().getSimpleName() + "." + joinPoint.getSignature().getName();
+        String previous = QueryMetricsContext.enterMethod(method);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            recordRows(method, result);
+            return result;
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("repository.method")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            QueryMetricsContext.exitMethod(previous);
+        }
+    }
+
+    private void recordRows(String method, Object result) {
+        int rows;
+        if (result instanceof Collection) {
+            rows = ((Collection<?>) result).size();
+        } else if (result instanceof Slice) {
+            rows = ((Slice<?>) result).getNumberOfElements();
+        } else if (result instanceof KeysetPage) {
+            rows = ((KeysetPage<?>) result).getContent().size();
+        } else {
+            return;
+        }
+
+        DistributionSummary.builder("repository.method.rows")
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(rows);
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 가 감싼 DataSource 에서 실행되는 모든 SQL 을 {@link StatementCounter} 에 센다.
+ * (배치 실행은 executeBatch 한 번으로 센다)
+ */
+@Component
+public class StatementCountListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        StatementCounter.increment();
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 요청(또는 스레드)별로 실행된 SQL 문 수 (단조 증가)
+ * 구간의 문장 수는 시작/끝 값의 차이로 구한다. (요청 단위 쿼리 예산, 테스트 검증 용도)
+ * 다른 스레드에서 실행하는 작업(동시 count 쿼리 등)은 {@link #call} 로 호출한 쪽의 카운터에 센다.
+ * 캐시/사전 적재처럼 요청과 무관하게 나가는 SQL 은 {@link #uncounted} 로 빼낸다.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<Scope> SCOPE = ThreadLocal.withInitial(() -> new Scope(null));
+    private static final ThreadLocal<int[]> UNCOUNTED = ThreadLocal.withInitial(() -> new int[1]);
+
+    private StatementCounter() {
+    }
+
+    public static long current() {
+        return SCOPE.get().statements();
+    }
+
+    /**
+     * 현재 스레드가 세고 있는 카운터 (다른 스레드로 넘길 때)
+     */
+    public static Scope scope() {
+        return SCOPE.get();
+    }
+
+    /**
+     * 요청 하나를 위한 새 카운터를 현재 스레드에 건다. 요청이 끝나면 {@link #end} 로 되돌린다.
+     * 안에서 센 문장은 바깥 카운터에도 더해진다. (테스트에서 MockMvc 요청을 포함해 셀 때)
+     */
+    public static Scope begin() {
+        Scope scope = new Scope(SCOPE.get());
+        SCOPE.set(scope);
+        return scope;
+    }
+
+    public static void end(Scope scope) {
+        if (scope.parent != null) {
+            SCOPE.set(scope.parent);
+        } else {
+            SCOPE.remove();
+        }
+    }
+
+    /**
+     * work 가 실행하는 SQL 을 scope 카운터에 센다. (다른 스레드에서 호출한 쪽의 요청으로 셀 때)
+     */
+    public static <T> T call(Scope scope, Supplier<T> work) {
+        Scope previous = SCOPE.get();
+        SCOPE.set(scope);
+        try {
+            return work.get();
+        } finally {
+            SCOPE.set(previous);
+        }
+    }
+
+    /**
+     * work 가 실행하는 SQL 은 세지 않는다. (요청과 무관한 캐시/사전 적재)
+     */
+    public static <T> T uncounted(Supplier<T> work) {
+        int[] depth = UNCOUNTED.get();
+        depth[0]++;
+        try {
+            return work.get();
+        } finally {
+            depth[0]--;
+        }
+    }
+
+    static void increment() {
+        if (UNCOUNTED.get()[0] == 0) {
+            for (Scope scope = SCOPE.get(); scope != null; scope = scope.parent) {
+                scope.count.incrementAndGet();
+            }
+        }
+    }
+
+    public static final class Scope {
+
+        private final Scope parent;
+        private final AtomicLong count = new AtomicLong();
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public long statements() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 미리 만든 생성자 / setter 호출 코드로 값을 채우는 bean 프로젝션
+ *
+ * @see FastProjections#bean
+ */
+final class BeanProjection<T> extends FactoryExpressionBase<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Supplier<T> factory;
+    private final List<Expression<?>> args;
+    private final transient List<BiConsumer<Object, Object>> writers;
+
+    BeanProjection(Class<? extends T> type, Supplier<T> factory,
+                   List<Expression<?>> args, List<BiConsumer<Object, Object>> writers) {
+        super(type);
+        this.factory = factory;
+        this.args = Collections.unmodifiableList(args);
+        this.writers = writers;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... values) {
+        T bean = factory.get();
+        for (int i = 0; i < values.length; i++) {
+            // Projections.bean 처럼 null 은 건너뛴다 (기본 타입 프로퍼티)
+            if (values[i] != null) {
+                writers.get(i).accept(bean, values[i]);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+}
@@ -0,0 +1,49 @@
+package study.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 생성자 MethodHandle (Object[] -> Object 로 펼친) 으로 만드는 프로젝션
+ *
+ * @see FastProjections#constructor
+ */
+final class ConstructorProjection<T> extends FactoryExpressionBase<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient MethodHandle constructor;
+    private final List<Expression<?>> args;
+
+    ConstructorProjection(Class<? extends T> type, MethodHandle constructor, List<Expression<?>> args) {
+        super(type);
+        this.constructor = constructor;
+        this.args = Collections.unmodifiableList(args);
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... values) {
+        try {
+            return (T) (Object) constructor.invokeExact(values);
+        } catch (Throwable e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+}
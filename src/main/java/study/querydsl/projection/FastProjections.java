@@ -0,0 +1,202 @@
+package study.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link com.querydsl.core.types.Projections} 의 bean / fields / constructor 를 리플렉션 없이 처리하는 프로젝션
+ * DTO 타입마다 처음 사용할 때 생성자와 setter 를 LambdaMetafactory 로 직접 호출 코드로 만들고 캐시한다.
+ * (setter 가 없으면 필드 MethodHandle, 생성자 프로젝션은 MethodHandle)
+ *
+ * 프로퍼티 이름은 Projections.bean 과 같이 경로 이름 또는 별칭(as / ExpressionUtils.as)으로 정한다.
+ */
+public final class FastProjections {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Map<Class<?>, Supplier<?>> FACTORIES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, BiConsumer<Object, Object>>> WRITERS = new ConcurrentHashMap<>();
+    private static final Map<List<Class<?>>, MethodHandle> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private FastProjections() {
+    }
+
+    /**
+     * 기본 생성자로 만들고 setter (없으면 필드)로 값을 채운다.
+     */
+    public static <T> FactoryExpression<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        List<Expression<?>> args = new ArrayList<>(exprs.length);
+        List<BiConsumer<Object, Object>> writers = new ArrayList<>(exprs.length);
+        for (Expression<?> expr : exprs) {
+            String property = propertyOf(expr);
+            args.add(unwrapAlias(expr));
+            writers.add(writer(type, property));
+        }
+
+        @SuppressWarnings("unchecked")
+        Supplier<T> factory = (Supplier<T>) FACTORIES.computeIfAbsent(type, FastProjections::factory);
+        return new BeanProjection<>(type, factory, args, writers);
+    }
+
+    /**
+     * 표현식 타입과 맞는 public 생성자로 만든다. (기본 타입 파라미터는 wrapper 타입과 매칭)
+     */
+    public static <T> FactoryExpression<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        List<Class<?>> key = new ArrayList<>(exprs.length + 1);
+        key.add(type);
+        for (Expression<?> expr : exprs) {
+            key.add(expr.getType());
+        }
+
+        MethodHandle constructor = CONSTRUCTORS.computeIfAbsent(key, k -> constructor(type, k.subList(1, k.size())));
+        return new ConstructorProjection<>(type, constructor, Arrays.asList(exprs));
+    }
+
+    private static String propertyOf(Expression<?> expr) {
+        if (expr instanceof Path) {
+            return ((Path<?>) expr).getMetadata().getName();
+        }
+        if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+            return ((Path<?>) ((Operation<?>) expr).getArg(1)).getMetadata().getName();
+        }
+        throw new IllegalArgumentException("Unsupported expression " + expr + ", use a path or an alias");
+    }
+
+    private static Expression<?> unwrapAlias(Expression<?> expr) {
+        if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+            return ((Operation<?>) expr).getArg(0);
+        }
+        return expr;
+    }
+
+    private static BiConsumer<Object, Object> writer(Class<?> type, String property) {
+        return WRITERS.computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(property, p -> createWriter(type, p));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createWriter(Class<?> type, String property) {
+        Method setter = findSetter(type, property);
+        try {
+            if (setter != null) {
+                MethodHandle handle = LOOKUP.unreflect(setter);
+                Class<?> parameterType = setter.getParameterTypes()[0];
+                if (Modifier.isPublic(type.getModifiers())) {
+                    return (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(LOOKUP, "accept",
+                            MethodType.methodType(BiConsumer.class),
+                            MethodType.methodType(void.class, Object.class, Object.class),
+                            handle,
+                            MethodType.methodType(void.class, type, MethodType.methodType(parameterType).wrap().returnType())
+                    ).getTarget().invoke();
+                }
+                return handleWriter(handle);
+            }
+
+            Field field = findField(type, property);
+            return handleWriter(MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP).unreflectSetter(field));
+        } catch (Throwable e) {
+            throw new ExpressionException("Cannot bind property " + property + " of " + type.getName(), e);
+        }
+    }
+
+    private static BiConsumer<Object, Object> handleWriter(MethodHandle handle) {
+        MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                generic.invokeExact(bean, value);
+            } catch (Throwable e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        };
+    }
+
+    private static Method findSetter(Class<?> type, String property) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String property) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(property) && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No setter or field " + property + " in " + type.getName());
+    }
+
+    private static Supplier<?> factory(Class<?> type) {
+        try {
+            MethodHandle constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            if (Modifier.isPublic(type.getModifiers())) {
+                return (Supplier<?>) LambdaMetafactory.metafactory(LOOKUP, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        constructor,
+                        MethodType.methodType(type)
+                ).getTarget().invoke();
+            }
+            MethodHandle generic = constructor.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return generic.invokeExact();
+                } catch (Throwable e) {
+                    throw new ExpressionException(e.getMessage(), e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new ExpressionException("No accessible default constructor in " + type.getName(), e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> type, List<Class<?>> argTypes) {
+        for (Constructor<?> candidate : type.getConstructors()) {
+            Class<?>[] parameterTypes = candidate.getParameterTypes();
+            if (parameterTypes.length != argTypes.size()) {
+                continue;
+            }
+
+            boolean matches = true;
+            for (int i = 0; i < parameterTypes.length && matches; i++) {
+                Class<?> parameterType = MethodType.methodType(parameterTypes[i]).wrap().returnType();
+                matches = parameterType.isAssignableFrom(argTypes.get(i));
+            }
+            if (matches) {
+                try {
+                    return LOOKUP.unreflectConstructor(candidate)
+                            .asSpreader(Object[].class, parameterTypes.length)
+                            .asType(MethodType.methodType(Object.class, Object[].class));
+                } catch (IllegalAccessException e) {
+                    throw new ExpressionException(e.getMessage(), e);
+                }
+            }
+        }
+        throw new ExpressionException("No constructor of " + type.getName() + " for " + argTypes);
+    }
+}
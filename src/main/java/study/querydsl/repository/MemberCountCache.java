@@ -0,0 +1,127 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.TableWriteListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * searchComplex 전체 건수(count 쿼리) 캐시
+ * 키는 정규화된 검색 조건, TTL 과 최대 크기(LRU)로 제한한다.
+ * member / team 테이블에 쓰기가 발생하면 (벌크 연산 포함) 전부 비운다.
+ */
+@Component
+public class MemberCountCache implements TableWriteListener {
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<MemberSearchCondition, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // 조회 도중 무효화가 끼어들면 오래된 count 를 넣지 않기 위한 세대 번호
+    private long generation;
+
+    public MemberCountCache(@Value("${member.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${member.count-cache.max-size:1000}") int maxSize,
+                            MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<MemberSearchCondition, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MemberSearchCondition, Entry> eldest) {
+                if (size() > MemberCountCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("member.count.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("member.count.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("member.count.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("member.count.cache.invalidations", invalidations, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("member.count.cache.size", this, MemberCountCache::size).register(meterRegistry);
+    }
+
+    public long get(MemberSearchCondition condition, LongSupplier countQuery) {
+        MemberSearchCondition key = condition.normalized();
+        long startGeneration;
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+                hits.incrementAndGet();
+                return entry.count;
+            }
+            startGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        long count = countQuery.getAsLong();
+
+        synchronized (entries) {
+            if (generation == startGeneration) {
+                entries.put(key, new Entry(count, System.nanoTime()));
+            }
+        }
+        return count;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public boolean supports(String table) {
+        return "member".equals(table) || "team".equals(table);
+    }
+
+    @Override
+    public void onTableWrite(String table) {
+        invalidateAll();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long loadedAt;
+
+        private Entry(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.repository;
+
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.CountEstimate;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 회원 검색 건수 추정
+ * 팀 / 나이 조건은 {@link TeamStatistics} 가 커밋 이벤트로 증분 유지하는 팀별 나이 분포로 정확히 센다.
+ * username 조건은 {@link UsernameIndex} 로 같은 username 회원 수를 세고, 팀 / 나이와 독립이라고 가정해 비율로 추정한다.
+ *
+ * 오차 범위
+ * - username 조건이 없으면 추정 = 하한 = 상한
+ * - username 조건이 있으면 하한은 두 집합이 최대한 덜 겹치는 경우 (팀/나이 + username - 전체), 상한은 둘 중 작은 쪽
+ * - 다른 인스턴스의 쓰기와 이벤트 없는 벌크 쓰기는 두 집계가 다시 만들어질 때까지 반영되지 않는다
+ */
+@Component
+public class MemberCountStatistics {
+
+    private final TeamStatistics teamStatistics;
+    private final UsernameIndex usernameIndex;
+
+    public MemberCountStatistics(TeamStatistics teamStatistics, UsernameIndex usernameIndex) {
+        this.teamStatistics = teamStatistics;
+        this.usernameIndex = usernameIndex;
+    }
+
+    public CountEstimate estimate(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalized();
+        long matched = teamStatistics.countMembers(normalized.getTeamName(), normalized.getAgeGoe(), normalized.getAgeLoe());
+        if (normalized.getUsername() == null) {
+            return CountEstimate.of(matched, matched, matched);
+        }
+
+        long total = teamStatistics.countMembers(null, null, null);
+        long sameUsername = usernameIndex.count(normalized.getUsername());
+        long upper = Math.min(matched, sameUsername);
+        long lower = Math.min(upper, Math.max(0, matched + sameUsername - total));
+        long estimate = total == 0 ? 0 : Math.round((double) matched * sameUsername / total);
+        return CountEstimate.of(Math.max(lower, Math.min(upper, estimate)), lower, upper);
+    }
+}
@@ -1,21 +1,28 @@
 package study.querydsl.repository;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
@@ -24,12 +31,16 @@ import static study.querydsl.entity.QTeam.team;
 @Repository
 public class MemberJpaRepository {
 
+    private static final int READ_ONLY_FETCH_SIZE = 500;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final TeamNameDictionary teamNameDictionary;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory, TeamNameDictionary teamNameDictionary) {
         this.em = em;
-        this.queryFactory = new JPAQueryFactory(em);
+        this.queryFactory = queryFactory;
+        this.teamNameDictionary = teamNameDictionary;
     }
 
     public void save(Member member) {
@@ -48,13 +59,21 @@ public class MemberJpaRepository {
                 .fetchOne());
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class).getResultList();
     }
 
+    /**
+     * 조회 전용: 읽기 전용 트랜잭션 + 엔티티 스냅샷 생략, fetch size, 자동 flush 없음
+     */
+    @Transactional(readOnly = true)
     public List<Member> findAll_Querydsl() {
         return queryFactory
                 .selectFrom(member)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FETCH_SIZE, READ_ONLY_FETCH_SIZE)
+                .setFlushMode(FlushModeType.COMMIT)
                 .fetch();
     }
 
@@ -72,6 +91,7 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
         BooleanBuilder builder = new BooleanBuilder();
@@ -107,6 +127,7 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
         return queryFactory
                 .select(new QMemberTeamDto(
@@ -119,19 +140,73 @@ public class MemberJpaRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
                 .fetch();
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    /**
+     * search 와 같은 조건이지만 결과를 List 로 모으지 않고 한 건씩 action 에 넘긴다.
+     * forward-only 커서 + JDBC fetch size 로 읽으므로 결과 건수와 무관하게 힙 사용량이 일정하다.
+     * DTO 프로젝션이라 영속성 컨텍스트에 엔티티가 쌓이지 않는다.
+     */
+    @Transactional(readOnly = true)
+    public void searchStream(MemberSearchCondition condition, int fetchSize, Consumer<MemberTeamDto> action) {
+        try (CloseableIterator<MemberTeamDto> iterator = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.teamName.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .iterate()) {
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * search 결과를 DTO 목록 대신 컬럼 배열로 모은다. (대량 조회용, row 마다 DTO 를 만들지 않음)
+     * 결과 전체를 메모리에 모으므로 내보내기(export)에는 쓰지 않는다. (내보내기는 searchStream)
+     * 정렬하지 않으므로 순서는 search 와 마찬가지로 보장되지 않는다.
+     */
+    @Transactional(readOnly = true)
+    public MemberTeamColumns searchColumns(MemberSearchCondition condition, int fetchSize) {
+        MemberTeamColumns.Builder columns = MemberTeamColumns.builder();
+        try (CloseableIterator<Tuple> iterator = queryFactory
+                .select(member.id, member.username, member.age, team.id, team.teamName)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .iterate()) {
+            while (iterator.hasNext()) {
+                Tuple row = iterator.next();
+                columns.add(row.get(member.id), row.get(member.username), row.get(member.age),
+                        row.get(team.id), row.get(team.teamName));
+            }
+        }
+        return columns.build();
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.teamName.eq(teamName) : null;
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
     }
 
     private BooleanExpression ageGoe(Integer age) {
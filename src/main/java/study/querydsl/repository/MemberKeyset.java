@@ -0,0 +1,122 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.InvalidSearchParameterException;
+import study.querydsl.dto.MemberKeysetCursor;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Iterator;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 키셋 페이징 정렬 조건
+ * 정렬 키(memberId, age, username) 하나 + member.id 를 타이브레이커로 사용한다.
+ * (age, member_id), (username, member_id) 인덱스를 그대로 타도록 두 컬럼 모두 같은 방향으로 정렬한다.
+ * username 이 null 인 회원은 DB 기본 정렬(H2, MariaDB 모두 null 이 가장 작다)대로 오름차순이면 맨 앞, 내림차순이면 맨 뒤에 온다.
+ * ORDER BY 에 NULLS FIRST / LAST 를 쓰면 MariaDB 에서 CASE 식으로 바뀌어 인덱스 정렬을 못 쓰므로 명시하지 않는다.
+ */
+class MemberKeyset {
+
+    private static final String MEMBER_ID = "memberId";
+    private static final String AGE = "age";
+    private static final String USERNAME = "username";
+
+    private final String property;
+    private final boolean ascending;
+
+    private MemberKeyset(String property, boolean ascending) {
+        this.property = property;
+        this.ascending = ascending;
+    }
+
+    static MemberKeyset of(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext()) {
+            return new MemberKeyset(MEMBER_ID, true);
+        }
+
+        Sort.Order order = orders.next();
+        if (orders.hasNext()) {
+            throw new InvalidSearchParameterException("Keyset pagination supports a single sort property");
+        }
+        if (!MEMBER_ID.equals(order.getProperty())
+                && !AGE.equals(order.getProperty())
+                && !USERNAME.equals(order.getProperty())) {
+            throw new InvalidSearchParameterException("Unsupported keyset sort property: " + order.getProperty());
+        }
+        return new MemberKeyset(order.getProperty(), order.isAscending());
+    }
+
+    BooleanExpression after(MemberKeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        BooleanExpression idAfter = ascending ? member.id.gt(cursor.getLastId()) : member.id.lt(cursor.getLastId());
+        if (MEMBER_ID.equals(property)) {
+            return idAfter;
+        }
+        if (USERNAME.equals(property) && cursor.isNullKey()) {
+            return usernameAfterNull(idAfter);
+        }
+        if (cursor.getLastKey() == null) {
+            throw new InvalidSearchParameterException("Keyset cursor has no sort key for: " + property);
+        }
+
+        if (AGE.equals(property)) {
+            int age = ageOf(cursor);
+            BooleanExpression ageAfter = ascending ? member.age.gt(age) : member.age.lt(age);
+            return ageAfter.or(member.age.eq(age).and(idAfter));
+        }
+
+        String username = cursor.getLastKey();
+        BooleanExpression usernameAfter = ascending ? member.username.gt(username) : member.username.lt(username);
+        BooleanExpression after = usernameAfter.or(member.username.eq(username).and(idAfter));
+        // 내림차순에서 null 은 모든 username 뒤에 온다
+        return ascending ? after : after.or(member.username.isNull());
+    }
+
+    // 마지막 회원의 username 이 null 인 경우: null 끼리는 id 순, 오름차순이면 null 이 아닌 회원이 모두 뒤에 온다
+    private BooleanExpression usernameAfterNull(BooleanExpression idAfter) {
+        BooleanExpression nullAfter = member.username.isNull().and(idAfter);
+        return ascending ? nullAfter.or(member.username.isNotNull()) : nullAfter;
+    }
+
+    private static int ageOf(MemberKeysetCursor cursor) {
+        try {
+            return Integer.parseInt(cursor.getLastKey());
+        } catch (NumberFormatException e) {
+            throw new InvalidSearchParameterException("Invalid keyset cursor age: " + cursor.getLastKey(), e);
+        }
+    }
+
+    OrderSpecifier<?>[] orderBy() {
+        Order direction = ascending ? Order.ASC : Order.DESC;
+        OrderSpecifier<Long> byId = new OrderSpecifier<>(direction, member.id);
+
+        if (AGE.equals(property)) {
+            return new OrderSpecifier<?>[]{new OrderSpecifier<>(direction, member.age), byId};
+        }
+        if (USERNAME.equals(property)) {
+            return new OrderSpecifier<?>[]{new OrderSpecifier<>(direction, member.username), byId};
+        }
+        return new OrderSpecifier<?>[]{byId};
+    }
+
+    String cursorOf(MemberTeamDto last) {
+        if (AGE.equals(property)) {
+            return new MemberKeysetCursor(last.getMemberId(), String.valueOf(last.getAge())).encode();
+        }
+        if (USERNAME.equals(property)) {
+            if (last.getUsername() == null) {
+                return MemberKeysetCursor.ofNullKey(last.getMemberId()).encode();
+            }
+            return new MemberKeysetCursor(last.getMemberId(), last.getUsername()).encode();
+        }
+        return new MemberKeysetCursor(last.getMemberId(), null).encode();
+    }
+}
@@ -2,14 +2,26 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.KeysetPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface MemberRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageUsingFetchResult(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable);
+    ApproximatePage<MemberTeamDto> searchApproximate(MemberSearchCondition condition, Pageable pageable, boolean exactCount);
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+    KeysetPage<MemberTeamDto> searchKeyset(MemberSearchCondition condition, String cursor, Pageable pageable);
+    List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberTeamField> fields);
+    Page<Map<String, Object>> searchPageFieldsSimple(MemberSearchCondition condition, Set<MemberTeamField> fields, Pageable pageable);
+    Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberTeamField> fields, Pageable pageable);
 }
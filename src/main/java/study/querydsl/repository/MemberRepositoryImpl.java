@@ -2,31 +2,62 @@ package study.querydsl.repository;
 
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.CountEstimate;
+import study.querydsl.dto.KeysetPage;
+import study.querydsl.dto.MemberKeysetCursor;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.ConcurrentCountExecutor;
 
-import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
+/**
+ * 조회 전용: 읽기 전용 트랜잭션이므로 replica 풀이 설정되어 있으면 replica 에서 읽는다.
+ * (읽기/쓰기 트랜잭션 안에서 호출되면 그 트랜잭션을 따라 primary)
+ */
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final JPAQueryFactory queryFactory;
+    private final MemberCountCache countCache;
+    private final ConcurrentCountExecutor countExecutor;
+    private final TeamNameDictionary teamNameDictionary;
+    private final MemberCountStatistics countStatistics;
 
-    public MemberRepositoryImpl(EntityManager em) {
-        this.queryFactory = new JPAQueryFactory(em);
+    public MemberRepositoryImpl(JPAQueryFactory queryFactory, MemberCountCache countCache,
+                                ConcurrentCountExecutor countExecutor, TeamNameDictionary teamNameDictionary,
+                                MemberCountStatistics countStatistics) {
+        this.queryFactory = queryFactory;
+        this.countCache = countCache;
+        this.countExecutor = countExecutor;
+        this.teamNameDictionary = teamNameDictionary;
+        this.countStatistics = countStatistics;
     }
 
     @Override
@@ -42,7 +73,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
@@ -62,7 +93,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
@@ -87,7 +118,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
@@ -102,9 +133,70 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     }
 
+    /**
+     * 동시에 들어온 같은 검색을 합치려면 트랜잭션 밖에서 {@link MemberSearchCoalescer} 를 거쳐 호출한다.
+     */
     @Override
     public Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
+        return complexPage(condition, pageable, () -> searchComplexContent(condition, pageable));
+    }
+
+    // searchComplex 의 count 전략: 가능하면 count 를 동시에, 같은 조건의 count 는 캐시에서
+    private <T> Page<T> complexPage(MemberSearchCondition condition, Pageable pageable, Supplier<List<T>> contentQuery) {
+        JPAQuery<Member> countQuery = countQuery(condition);
+
+        if (countExecutor.canRunConcurrently()) {
+            // count 를 먼저 다른 스레드에서 시작하고 content 를 조회
+            Future<Long> count = countExecutor.submit(
+                    em -> countCache.get(condition, () -> countQuery.clone(em).fetchCount()));
+            try {
+                List<T> content = contentQuery.get();
+                return PageableExecutionUtils.getPage(content, pageable, () -> countExecutor.join(count));
+            } finally {
+                count.cancel(true);
+            }
+        }
+
+        List<T> content = contentQuery.get();
+
+        // 같은 조건으로 페이지만 넘기는 경우 count 쿼리는 캐시에서
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.get(condition, countQuery::fetchCount));
+    }
+
+    /**
+     * searchComplex 와 같은 content 에 전체 건수는 통계로 추정 (count 쿼리 없음)
+     * exactCount 를 요청한 경우에만 count 쿼리를 실행한다.
+     */
+    @Override
+    public ApproximatePage<MemberTeamDto> searchApproximate(MemberSearchCondition condition, Pageable pageable,
+                                                            boolean exactCount) {
+        List<MemberTeamDto> content = searchComplexContent(condition, pageable);
+        if (exactCount) {
+            return ApproximatePage.of(content, pageable,
+                    () -> CountEstimate.exact(countCache.get(condition, countQuery(condition)::fetchCount)));
+        }
+        return ApproximatePage.of(content, pageable, () -> countStatistics.estimate(condition));
+    }
+
+    private JPAQuery<Member> countQuery(MemberSearchCondition condition) {
+        TeamNameCondition teamName = teamNameDictionary.conditionOf(condition.getTeamName());
+        JPAQuery<Member> countQuery = queryFactory
+                .select(member)
+                .from(member);
+        // member -> team 은 to-one 이라 left join 이 건수를 바꾸지 않으므로 조건에 필요할 때만 조인
+        if (teamName.needsTeamJoin()) {
+            countQuery.leftJoin(member.team, team);
+        }
+        return countQuery.where(usernameEq(condition.getUsername()),
+                teamName.eq(),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        );
+    }
+
+    private List<MemberTeamDto> searchComplexContent(MemberSearchCondition condition, Pageable pageable) {
+        return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -115,34 +207,167 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
+    }
 
-
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+    /**
+     * count 쿼리 없이 pageSize + 1 건을 읽어 다음 페이지 존재 여부만 판단 (무한 스크롤)
+     */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<MemberTeamDto> fetched = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.teamName.as("teamName")
+                ))
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                );
+                )
+                .offset(pageable.getOffset())
+                .limit(size + 1)
+                .fetch();
 
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+        boolean hasNext = fetched.size() > size;
+        List<MemberTeamDto> content = hasNext ? new ArrayList<>(fetched.subList(0, size)) : fetched;
+        return new SliceImpl<>(content, pageable, hasNext);
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    /**
+     * offset 대신 마지막으로 읽은 키 이후부터 조회 (seek method)
+     * 페이지가 깊어져도 건너뛴 row 를 읽고 버리지 않으므로 조회 비용이 일정하다.
+     * pageable 은 size 와 sort 만 사용하고, page 번호는 무시한다.
+     */
+    @Override
+    public KeysetPage<MemberTeamDto> searchKeyset(MemberSearchCondition condition, String cursor, Pageable pageable) {
+        MemberKeyset keyset = MemberKeyset.of(pageable.getSort());
+        int size = pageable.getPageSize();
+
+        List<MemberTeamDto> fetched = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.teamName.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        keyset.after(MemberKeysetCursor.decode(cursor))
+                )
+                .orderBy(keyset.orderBy())
+                .limit(size + 1)
+                .fetch();
+
+        // size + 1 건을 읽어서 다음 페이지 존재 여부를 판단
+        boolean hasNext = fetched.size() > size;
+        List<MemberTeamDto> content = hasNext ? new ArrayList<>(fetched.subList(0, size)) : fetched;
+        String nextCursor = hasNext ? keyset.cursorOf(content.get(content.size() - 1)) : null;
+
+        return new KeysetPage<>(content, size, hasNext, nextCursor);
+    }
+
+    /**
+     * 요청한 컬럼만 조회 (sparse fieldset)
+     * team 조인은 teamName 을 조회하거나 조건에 필요할 때만 한다. teamId 는 member 의 FK 컬럼으로 읽는다.
+     */
+    @Override
+    public List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberTeamField> fields) {
+        return toRows(fieldsQuery(condition, fields).fetch(), fields);
+    }
+
+    /**
+     * searchPageSimple 처럼 count 쿼리 없이
+     */
+    @Override
+    public Page<Map<String, Object>> searchPageFieldsSimple(MemberSearchCondition condition,
+                                                            Set<MemberTeamField> fields, Pageable pageable) {
+        List<Map<String, Object>> content = fieldsContent(condition, fields, pageable);
+        return new PageImpl<>(content, pageable, content.size());
+    }
+
+    /**
+     * searchComplex 와 같은 count 전략
+     */
+    @Override
+    public Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberTeamField> fields,
+                                                      Pageable pageable) {
+        return complexPage(condition, pageable, () -> fieldsContent(condition, fields, pageable));
+    }
+
+    private List<Map<String, Object>> fieldsContent(MemberSearchCondition condition, Set<MemberTeamField> fields,
+                                                    Pageable pageable) {
+        List<Tuple> content = fieldsQuery(condition, fields)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+        return toRows(content, fields);
+    }
+
+    private JPAQuery<Tuple> fieldsQuery(MemberSearchCondition condition, Set<MemberTeamField> fields) {
+        TeamNameCondition teamName = teamNameDictionary.conditionOf(condition.getTeamName());
+        JPAQuery<Tuple> query = queryFactory
+                .select(fields.stream().map(MemberRepositoryImpl::expressionOf).toArray(Expression[]::new))
+                .from(member);
+        if (fields.contains(MemberTeamField.TEAM_NAME) || teamName.needsTeamJoin()) {
+            query.leftJoin(member.team, team);
+        }
+        return query.where(usernameEq(condition.getUsername()),
+                teamName.eq(),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        );
+    }
+
+    private static Expression<?> expressionOf(MemberTeamField field) {
+        switch (field) {
+            case MEMBER_ID:
+                return member.id;
+            case USERNAME:
+                return member.username;
+            case AGE:
+                return member.age;
+            case TEAM_ID:
+                return member.team.id;
+            case TEAM_NAME:
+                return team.teamName;
+            default:
+                throw new IllegalArgumentException("Unsupported member field: " + field);
+        }
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.teamName.eq(teamName) : null;
+    private static List<Map<String, Object>> toRows(List<Tuple> tuples, Set<MemberTeamField> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            int index = 0;
+            for (MemberTeamField field : fields) {
+                row.put(field.getFieldName(), tuple.get(index++, Object.class));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
     }
 
     private BooleanExpression ageGoe(Integer age) {
@@ -0,0 +1,80 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
+import study.querydsl.repository.support.SingleFlight;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 같은 조건, 같은 페이지로 동시에 들어온 searchComplex 검색은 한 번만 실행하고 결과를 복사해서 나눠 준다.
+ * 트랜잭션 경계({@link MemberRepositoryImpl}) 앞에 있으므로 leader 만 트랜잭션과 커넥션을 잡고, follower 는 아무것도 잡지 않고 기다린다.
+ */
+@Component
+public class MemberSearchCoalescer {
+
+    private final MemberRepository memberRepository;
+    private final SingleFlight<List<Object>, Page<MemberTeamDto>> searchComplexFlight;
+    private final SingleFlight<List<Object>, Page<Map<String, Object>>> searchFieldsFlight;
+    private final boolean enabled;
+
+    public MemberSearchCoalescer(MemberRepository memberRepository, MeterRegistry meterRegistry,
+                                 @Value("${member.single-flight.enabled:true}") boolean enabled,
+                                 @Value("${member.single-flight.follower-timeout:2s}") Duration followerTimeout) {
+        this.memberRepository = memberRepository;
+        this.searchComplexFlight = new SingleFlight<>("searchComplex", MemberSearchCoalescer::copyOf,
+                followerTimeout, meterRegistry);
+        this.searchFieldsFlight = new SingleFlight<>("searchPageFields", MemberSearchCoalescer::copyOfRows,
+                followerTimeout, meterRegistry);
+        this.enabled = enabled;
+    }
+
+    public Page<MemberTeamDto> searchComplex(MemberSearchCondition condition, Pageable pageable) {
+        if (!enabled) {
+            return memberRepository.searchComplex(condition, pageable);
+        }
+        return searchComplexFlight.execute(List.of(condition.normalized(), pageable),
+                () -> memberRepository.searchComplex(condition, pageable));
+    }
+
+    /**
+     * fields 를 고른 searchComplex (searchPageFields)
+     */
+    public Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberTeamField> fields,
+                                                      Pageable pageable) {
+        if (!enabled) {
+            return memberRepository.searchPageFields(condition, fields, pageable);
+        }
+        return searchFieldsFlight.execute(List.of(condition.normalized(), fields, pageable),
+                () -> memberRepository.searchPageFields(condition, fields, pageable));
+    }
+
+    private static Page<MemberTeamDto> copyOf(Page<MemberTeamDto> page) {
+        List<MemberTeamDto> content = new ArrayList<>(page.getNumberOfElements());
+        for (MemberTeamDto dto : page.getContent()) {
+            content.add(new MemberTeamDto(dto.getMemberId(), dto.getUsername(), dto.getAge(),
+                    dto.getTeamId(), dto.getTeamName()));
+        }
+        return new PageImpl<>(content, page.getPageable(), page.getTotalElements());
+    }
+
+    private static Page<Map<String, Object>> copyOfRows(Page<Map<String, Object>> page) {
+        List<Map<String, Object>> content = new ArrayList<>(page.getNumberOfElements());
+        for (Map<String, Object> row : page.getContent()) {
+            content.add(new LinkedHashMap<>(row));
+        }
+        return new PageImpl<>(content, page.getPageable(), page.getTotalElements());
+    }
+}
@@ -1,47 +1,74 @@
 package study.querydsl.repository;
 
 
+import com.querydsl.core.types.ParamExpression;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Param;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.ApproximatePage;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.QueryTemplate;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 @Repository
+@Transactional(readOnly = true)
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
-    public MemberTestRepository() {
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+    private final TeamNameDictionary teamNameDictionary;
+    private final MemberCountStatistics countStatistics;
+
+    public MemberTestRepository(TeamNameDictionary teamNameDictionary, MemberCountStatistics countStatistics) {
         super(Member.class);
+        this.teamNameDictionary = teamNameDictionary;
+        this.countStatistics = countStatistics;
     }
 
     public List<Member> basicSelect() {
-        return select(member)
-                .from(member)
+        return readOnly(select(member)
+                .from(member))
                 .fetch();
     }
 
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
-        JPAQuery<Member> query = selectFrom(member)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        TeamNameCondition teamName = teamNameDictionary.conditionOf(condition.getTeamName());
+        JPAQuery<Member> query = selectFromReadOnly(member);
+        if (teamName.needsTeamJoin()) {
+            query.leftJoin(member.team, team);
+        }
+        query.where(usernameEq(condition.getUsername()),
+                teamName.eq(),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        );
+        LongSupplier count = countOf(query);
 
         List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
 
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, count);
     }
 
 
@@ -50,12 +77,183 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         return null;
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    /**
+     * 매 호출마다 Querydsl 표현식을 만들고 JPQL 로 직렬화하는 일반적인 동적 쿼리
+     * paging.concurrent-count.enabled 면 count 쿼리를 content 쿼리와 동시에 실행한다.
+     */
+    public Page<MemberTeamDto> searchPageDto(MemberSearchCondition condition, Pageable pageable) {
+        return applyPaginationConcurrently(pageable, queryFactory -> queryFactory
+                        .select(new QMemberTeamDto(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.teamName.as("teamName")
+                        ))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(usernameEq(condition.getUsername()),
+                                teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        ),
+                queryFactory -> {
+                    TeamNameCondition teamName = teamNameDictionary.conditionOf(condition.getTeamName());
+                    JPAQuery<Member> countQuery = queryFactory
+                            .select(member)
+                            .from(member);
+                    if (teamName.needsTeamJoin()) {
+                        countQuery.leftJoin(member.team, team);
+                    }
+                    return countQuery.where(usernameEq(condition.getUsername()),
+                            teamName.eq(),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe())
+                    );
+                });
+    }
+
+    /**
+     * 전체 건수는 팀 x 나이 구간 통계로 추정
+     */
+    public ApproximatePage<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable) {
+        return applyApproximatePagination(pageable, queryFactory -> queryFactory
+                        .select(new QMemberTeamDto(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.teamName.as("teamName")
+                        ))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(usernameEq(condition.getUsername()),
+                                teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        ),
+                () -> countStatistics.estimate(condition));
+    }
+
+    public Slice<MemberTeamDto> searchSliceDto(MemberSearchCondition condition, Pageable pageable) {
+        return applySlicing(pageable, queryFactory -> queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.teamName.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameDictionary.conditionOf(condition.getTeamName()).eq(),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                ));
+    }
+
+    /**
+     * searchPageDto 와 같은 결과를 지연 조인 페이징으로 조회
+     * 깊은 페이지에서 member_id 만 건너뛰고, 해당 페이지의 회원만 team 과 조인해 읽는다.
+     */
+    public Page<MemberTeamDto> searchPageDeferred(MemberSearchCondition condition, Pageable pageable) {
+        return applyDeferredPagination(pageable,
+                queryFactory -> {
+                    TeamNameCondition teamName = teamNameDictionary.conditionOf(condition.getTeamName());
+                    JPAQuery<Long> idQuery = queryFactory
+                            .select(member.id)
+                            .from(member);
+                    if (teamName.needsTeamJoin()) {
+                        idQuery.leftJoin(member.team, team);
+                    }
+                    return idQuery.where(usernameEq(condition.getUsername()),
+                            teamName.eq(),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe())
+                    );
+                },
+                (queryFactory, ids) -> queryFactory
+                        .select(new QMemberTeamDto(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.teamName.as("teamName")
+                        ))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(member.id.in(ids)),
+                MemberTeamDto::getMemberId,
+                queryFactory -> {
+                    TeamNameCondition teamName = teamNameDictionary.conditionOf(condition.getTeamName());
+                    JPAQuery<Member> countQuery = queryFactory
+                            .select(member)
+                            .from(member);
+                    if (teamName.needsTeamJoin()) {
+                        countQuery.leftJoin(member.team, team);
+                    }
+                    return countQuery.where(usernameEq(condition.getUsername()),
+                            teamName.eq(),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe())
+                    );
+                });
+    }
+
+    /**
+     * searchPageDto 와 같은 결과를 조건 모양(최대 16가지)별 캐시된 템플릿으로 조회
+     * 표현식 생성, JPQL 직렬화 없이 파라미터 바인딩만 한다.
+     */
+    public Page<MemberTeamDto> searchPageByTemplate(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = condition.normalized();
+
+        QueryTemplate<MemberTeamDto> template = queryTemplate("searchPageByTemplate", shapeOf(normalized),
+                queryFactory -> queryFactory
+                        .select(new QMemberTeamDto(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.teamName.as("teamName")
+                        ))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(normalized.getUsername() != null ? member.username.eq(USERNAME) : null,
+                                normalized.getTeamName() != null ? team.teamName.eq(TEAM_NAME) : null,
+                                normalized.getAgeGoe() != null ? member.age.goe(AGE_GOE) : null,
+                                normalized.getAgeLoe() != null ? member.age.loe(AGE_LOE) : null
+                        ));
+
+        return applyPagination(pageable, template, paramsOf(normalized));
+    }
+
+    private static int shapeOf(MemberSearchCondition condition) {
+        return (condition.getUsername() != null ? 1 : 0)
+                | (condition.getTeamName() != null ? 2 : 0)
+                | (condition.getAgeGoe() != null ? 4 : 0)
+                | (condition.getAgeLoe() != null ? 8 : 0);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.teamName.eq(teamName) : null;
+    private static Map<ParamExpression<?>, Object> paramsOf(MemberSearchCondition condition) {
+        Map<ParamExpression<?>, Object> params = new HashMap<>();
+        if (condition.getUsername() != null) {
+            params.put(USERNAME, condition.getUsername());
+        }
+        if (condition.getTeamName() != null) {
+            params.put(TEAM_NAME, condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            params.put(AGE_GOE, condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            params.put(AGE_LOE, condition.getAgeLoe());
+        }
+        return params;
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
     }
 
     private BooleanExpression ageGoe(Integer age) {
@@ -0,0 +1,37 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 검색의 팀 이름 조건 ({@link TeamNameDictionary#conditionOf} 로 만든다)
+ * 사전으로 팀 id 를 찾았으면 member.team.id (FK 컬럼, 조인 불필요)로 거르고, 못 찾았으면 team 조인으로 거른다.
+ * 조인 여부와 조건을 같은 조회 결과로 정하도록 쿼리 하나에 한 번만 만든다.
+ */
+public final class TeamNameCondition {
+
+    private final String teamName;
+    private final List<Long> teamIds;
+
+    TeamNameCondition(String teamName, List<Long> teamIds) {
+        this.teamName = teamName;
+        this.teamIds = teamIds;
+    }
+
+    public BooleanExpression eq() {
+        if (!hasText(teamName)) {
+            return null;
+        }
+        return teamIds != null ? member.team.id.in(teamIds) : team.teamName.eq(teamName);
+    }
+
+    // 팀 이름 조건이 팀 id 조건으로 바뀌지 못한 경우에만 team 조인이 필요
+    public boolean needsTeamJoin() {
+        return hasText(teamName) && teamIds == null;
+    }
+}
@@ -0,0 +1,143 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.metrics.StatementCounter;
+import study.querydsl.repository.support.TableWriteInspector;
+import study.querydsl.repository.support.TableWriteListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 이름 -> 팀 id 사전 (메모리)
+ * 팀 이름 조건을 member.team.id 조건으로 바꿔서 team 조인과 문자열 비교를 없앤다.
+ * 커밋된 데이터만 별도 EntityManager 로 읽고, 이 JVM 에서 team 테이블에 쓰기가 발생하면 다음 조회 때 다시 읽는다.
+ * 다른 인스턴스나 직접 실행한 SQL 로 바뀐 팀은 알 수 없으므로
+ * - 사전은 ttl 이 지나면 다시 읽고 (그 사이 이름이 바뀌거나 지워진 팀은 ttl 동안만 틀릴 수 있다)
+ * - 사전에 없는 이름과 다시 읽는 중인 동안은 조인으로 거른다. (새로 생긴 팀을 빈 결과로 만들지 않는다)
+ */
+@Component
+public class TeamNameDictionary implements TableWriteListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TableWriteInspector tableWriteInspector;
+    private final long ttlNanos;
+
+    // 무효화와 사전 교체를 원자적으로 하기 위한 락, 읽는 도중 무효화를 감지하는 버전
+    private final Object lock = new Object();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private long version;
+    private volatile Snapshot snapshot;
+
+    public TeamNameDictionary(EntityManagerFactory entityManagerFactory, TableWriteInspector tableWriteInspector,
+                              @Value("${member.team-name-dictionary.ttl:30s}") Duration ttl) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.tableWriteInspector = tableWriteInspector;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * 팀 이름 검색 조건 (사전에서 찾은 팀 id 또는 team 조인)
+     */
+    public TeamNameCondition conditionOf(String teamName) {
+        return new TeamNameCondition(teamName, hasText(teamName) ? idsOf(teamName) : null);
+    }
+
+    /**
+     * @return 이름이 teamName 인 팀 id 목록,
+     * 사전에 없는 이름이거나 현재 트랜잭션에서 team 을 변경해 사전을 믿을 수 없거나 사전을 다시 읽는 중이면 null
+     */
+    public List<Long> idsOf(String teamName) {
+        if (tableWriteInspector.hasPendingWrite("team")) {
+            return null;
+        }
+
+        Snapshot current = snapshot;
+        if (current == null || System.nanoTime() - current.loadedAt > ttlNanos) {
+            // 사전 적재는 요청의 쿼리 예산에 넣지 않는다
+            current = StatementCounter.uncounted(this::reload);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current.idsByName.get(teamName);
+    }
+
+    // 다른 스레드가 읽는 중이면 기다리지 않고 null (조인으로 거른다)
+    private Snapshot reload() {
+        if (!reloadLock.tryLock()) {
+            return null;
+        }
+        try {
+            Snapshot current = snapshot;
+            if (current != null && System.nanoTime() - current.loadedAt <= ttlNanos) {
+                return current;
+            }
+
+            long startVersion;
+            synchronized (lock) {
+                startVersion = version;
+            }
+            long loadedAt = System.nanoTime();
+            Map<String, List<Long>> loaded = new HashMap<>();
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                List<Tuple> rows = new JPAQueryFactory(entityManager)
+                        .select(team.id, team.teamName)
+                        .from(team)
+                        .fetch();
+                for (Tuple row : rows) {
+                    loaded.computeIfAbsent(row.get(team.teamName), name -> new ArrayList<>()).add(row.get(team.id));
+                }
+            } finally {
+                entityManager.close();
+            }
+
+            // 읽는 도중 무효화됐으면 이번 결과만 쓰고 사전에는 넣지 않는다
+            Snapshot reloaded = new Snapshot(loaded, loadedAt);
+            synchronized (lock) {
+                if (version == startVersion) {
+                    snapshot = reloaded;
+                }
+            }
+            return reloaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean supports(String table) {
+        return "team".equals(table);
+    }
+
+    @Override
+    public void onTableWrite(String table) {
+        synchronized (lock) {
+            version++;
+            snapshot = null;
+        }
+    }
+
+    private static class Snapshot {
+        private final Map<String, List<Long>> idsByName;
+        private final long loadedAt;
+
+        private Snapshot(Map<String, List<Long>> idsByName, long loadedAt) {
+            this.idsByName = idsByName;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
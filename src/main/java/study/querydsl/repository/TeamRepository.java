@@ -0,0 +1,23 @@
+package study.querydsl.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import study.querydsl.entity.Team;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    /**
+     * 쿼리 캐시 사용 (결과 id 목록은 쿼리 캐시, 엔티티는 2차 캐시에서)
+     * team 테이블에 쓰기가 발생하면 Hibernate 가 무효화한다.
+     *
+     * 회원 검색의 팀 이름 조건은 이 쿼리가 아니라 {@link TeamNameDictionary} 를 쓴다.
+     * 사전은 모든 팀 이름을 한 번에 읽어 두고 없는 이름은 조인으로 거르지만, 쿼리 캐시는 이름마다 한 번씩 DB 를 읽고
+     * 없는 이름의 빈 결과도 캐시하므로 다른 인스턴스에서 만든 팀을 리전 만료(10분)까지 못 찾는다.
+     * 팀 엔티티 자체가 필요한 조회에서 쓴다.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+    List<Team> findByTeamName(String teamName);
+}
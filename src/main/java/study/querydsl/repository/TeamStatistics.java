@@ -0,0 +1,501 @@
+package study.querydsl.repository;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.metrics.StatementCounter;
+import study.querydsl.repository.support.BulkWriteEvent;
+import study.querydsl.repository.support.PostCommitEntityListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀별 회원 수 / 나이 합계 / 최소 / 최대 집계 (QuerydslBasicTest.group() 의 group by 결과를 미리 유지)
+ * 커밋된 회원 persist / remove / 나이 변경 / changeTeam 을 Hibernate post-commit 이벤트로 받아 증분 반영하므로
+ * 조회는 회원 수가 아니라 팀 수에 비례한다.
+ * 팀별 나이 분포와 팀 없는 회원도 함께 유지해 건수 추정({@link MemberCountStatistics})도 이 집계를 쓴다.
+ *
+ * 엔티티 이벤트를 거치지 않는 쓰기는 반영할 수 없어 다음 조회 때 커밋된 데이터로 다시 만든다.
+ * - 공유 JPAQueryFactory 로 실행한 벌크 update / delete ({@link BulkWriteEvent})
+ * - 그 밖의 JPQL / 네이티브 벌크 쓰기는 {@link #invalidate()} 를 직접 호출해야 한다
+ *
+ * 다시 만들 때는 회원을 (member_id, team_id, age) 로 읽어 집계하고, 읽는 동안 커밋된 변경은 회원 id 별 최신 상태로 모아 둔다.
+ * 다 읽은 뒤 그 회원들은 읽은 값을 빼고 최신 상태를 더하므로, 조회에 포함됐는지와 관계없이 한 번만 반영되고 다시 만들 필요가 없다.
+ * (읽는 동안 회원당 20바이트 정도를 잠시 들고 있다)
+ */
+@Component
+public class TeamStatistics extends PostCommitEntityListener {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // 아래 필드는 this 로 보호
+    private Aggregates aggregates = new Aggregates();
+    private boolean stale = true;
+    // 다시 만드는 동안 invalidate() 가 불렸는지 확인한다
+    private long invalidations;
+    // 다시 만드는 동안 커밋된 변경
+    private Delta pending;
+
+    public TeamStatistics(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory, Member.class, Team.class);
+    }
+
+    public List<TeamStatisticsDto> statistics() {
+        return read(current -> toDtos(current.teams));
+    }
+
+    /**
+     * teamName 팀 (null 이면 팀 없는 회원을 포함한 전체) 의 회원 중 나이가 ageGoe ~ ageLoe 인 회원 수
+     */
+    public long countMembers(String teamName, Integer ageGoe, Integer ageLoe) {
+        return read(current -> current.count(teamName, ageGoe, ageLoe));
+    }
+
+    // 다시 만들어야 하면 만든 뒤 this 락 안에서 view 를 실행한다
+    private <T> T read(Function<Aggregates, T> view) {
+        synchronized (this) {
+            if (!stale) {
+                return view.apply(aggregates);
+            }
+        }
+
+        rebuildLock.lock();
+        try {
+            long startInvalidations;
+            synchronized (this) {
+                // 기다리는 동안 다른 스레드가 다시 만들었으면 그 결과를 쓴다
+                if (!stale) {
+                    return view.apply(aggregates);
+                }
+                startInvalidations = invalidations;
+                pending = new Delta();
+            }
+
+            Loaded loaded;
+            try {
+                loaded = StatementCounter.uncounted(this::load);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                boolean applied = pending.applyTo(loaded);
+                pending = null;
+                aggregates = loaded.aggregates;
+                stale = !applied || invalidations != startInvalidations;
+                return view.apply(aggregates);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public synchronized void invalidate() {
+        stale = true;
+        invalidations++;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkWrite(BulkWriteEvent event) {
+        if (event.getEntityType() == Member.class || event.getEntityType() == Team.class) {
+            invalidate();
+        }
+    }
+
+    // 다시 만드는 도중 커밋을 끼워 넣을 수 있도록 테스트에서 재정의한다
+    Loaded load() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
+            MemberRows members = new MemberRows();
+            try (CloseableIterator<Tuple> iterator = queryFactory
+                    .select(member.id, member.team.id, member.age)
+                    .from(member)
+                    .orderBy(member.id.asc())
+                    .setHint(QueryHints.READ_ONLY, true)
+                    .setHint(QueryHints.FETCH_SIZE, LOAD_FETCH_SIZE)
+                    .iterate()) {
+                while (iterator.hasNext()) {
+                    Tuple row = iterator.next();
+                    members.add(row.get(member.id), row.get(member.team.id), row.get(member.age));
+                }
+            }
+            // 회원보다 나중에 읽으므로 읽은 회원의 팀은 (그 사이 삭제되지 않았다면) 모두 있다
+            List<Tuple> teams = queryFactory
+                    .select(team.id, team.teamName)
+                    .from(team)
+                    .fetch();
+
+            Aggregates rebuilt = new Aggregates();
+            for (Tuple row : teams) {
+                rebuilt.teams.put(row.get(team.id), new TeamAggregate(row.get(team.teamName)));
+            }
+            for (int i = 0; i < members.size; i++) {
+                Long teamId = members.teamId(i);
+                TeamAggregate aggregate = teamId == null ? rebuilt.noTeam
+                        : rebuilt.teams.computeIfAbsent(teamId, id -> new TeamAggregate(null));
+                aggregate.add(members.ages[i], 1);
+            }
+            return new Loaded(rebuilt, members);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static List<TeamStatisticsDto> toDtos(Map<Long, TeamAggregate> aggregates) {
+        List<TeamStatisticsDto> result = new ArrayList<>(aggregates.size());
+        for (Map.Entry<Long, TeamAggregate> entry : aggregates.entrySet()) {
+            result.add(entry.getValue().toDto(entry.getKey()));
+        }
+        return result;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Team) {
+            Team inserted = (Team) entity;
+            synchronized (this) {
+                if (pending != null) {
+                    pending.team(inserted.getId(), inserted.getTeamName());
+                }
+                aggregates.teams.putIfAbsent(inserted.getId(), new TeamAggregate(inserted.getTeamName()));
+            }
+        } else if (entity instanceof Member) {
+            Member inserted = (Member) entity;
+            Long teamId = teamIdOf(inserted.getTeam());
+            synchronized (this) {
+                if (pending != null) {
+                    pending.member(inserted.getId(), new MemberState(teamId, inserted.getAge()));
+                }
+                addMember(teamId, inserted.getAge());
+            }
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Team) {
+            Team updated = (Team) entity;
+            synchronized (this) {
+                if (pending != null) {
+                    pending.team(updated.getId(), updated.getTeamName());
+                }
+                TeamAggregate aggregate = aggregates.teams.get(updated.getId());
+                if (aggregate != null) {
+                    aggregate.teamName = updated.getTeamName();
+                } else {
+                    stale = true;
+                }
+            }
+        } else if (entity instanceof Member) {
+            String[] properties = event.getPersister().getPropertyNames();
+            Object[] oldState = event.getOldState();
+            Object[] state = event.getState();
+            Long newTeamId = teamIdOf(valueOf(properties, state, "team"));
+            int newAge = (Integer) valueOf(properties, state, "age");
+            synchronized (this) {
+                if (pending != null) {
+                    pending.member((Long) event.getId(), new MemberState(newTeamId, newAge));
+                }
+                if (stale) {
+                    return;
+                }
+                // detached 엔티티 update 등 이전 상태를 모르면 증분 반영할 수 없다
+                if (oldState == null) {
+                    stale = true;
+                    return;
+                }
+                Long oldTeamId = teamIdOf(valueOf(properties, oldState, "team"));
+                int oldAge = (Integer) valueOf(properties, oldState, "age");
+                if (oldAge != newAge || !Objects.equals(oldTeamId, newTeamId)) {
+                    removeMember(oldTeamId, oldAge);
+                    addMember(newTeamId, newAge);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Team) {
+            synchronized (this) {
+                if (pending != null) {
+                    pending.removeTeam((Long) event.getId());
+                }
+                aggregates.teams.remove((Long) event.getId());
+            }
+        } else if (entity instanceof Member) {
+            String[] properties = event.getPersister().getPropertyNames();
+            Object[] deletedState = event.getDeletedState();
+            synchronized (this) {
+                if (pending != null) {
+                    pending.member((Long) event.getId(), null);
+                }
+                removeMember(teamIdOf(valueOf(properties, deletedState, "team")),
+                        (Integer) valueOf(properties, deletedState, "age"));
+            }
+        }
+    }
+
+    // 팀 없는 회원은 팀별 통계에는 나오지 않고 noTeam 에 센다
+    private void addMember(Long teamId, int age) {
+        if (!stale && !aggregates.add(teamId, age)) {
+            stale = true;
+        }
+    }
+
+    private void removeMember(Long teamId, int age) {
+        if (!stale && !aggregates.remove(teamId, age)) {
+            stale = true;
+        }
+    }
+
+    private static Object valueOf(String[] properties, Object[] state, String property) {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i].equals(property)) {
+                return state[i];
+            }
+        }
+        throw new IllegalArgumentException("no property " + property);
+    }
+
+    // 지연 로딩 프록시는 초기화하지 않고 식별자만 꺼낸다
+    private static Long teamIdOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) Hibernate.unproxy(value)).getId();
+    }
+
+    private static class Aggregates {
+        // 팀 id -> 집계
+        private final Map<Long, TeamAggregate> teams = new TreeMap<>();
+        private final TeamAggregate noTeam = new TeamAggregate(null);
+
+        private TeamAggregate of(Long teamId) {
+            return teamId == null ? noTeam : teams.get(teamId);
+        }
+
+        private boolean add(Long teamId, int age) {
+            TeamAggregate aggregate = of(teamId);
+            if (aggregate == null) {
+                return false;
+            }
+            aggregate.add(age, 1);
+            return true;
+        }
+
+        private boolean remove(Long teamId, int age) {
+            TeamAggregate aggregate = of(teamId);
+            return aggregate != null && aggregate.remove(age);
+        }
+
+        private long count(String teamName, Integer ageGoe, Integer ageLoe) {
+            long count = 0;
+            for (TeamAggregate aggregate : teams.values()) {
+                if (teamName == null || teamName.equals(aggregate.teamName)) {
+                    count += aggregate.count(ageGoe, ageLoe);
+                }
+            }
+            if (teamName == null) {
+                count += noTeam.count(ageGoe, ageLoe);
+            }
+            return count;
+        }
+    }
+
+    static final class Loaded {
+        private final Aggregates aggregates;
+        private final MemberRows members;
+
+        private Loaded(Aggregates aggregates, MemberRows members) {
+            this.aggregates = aggregates;
+            this.members = members;
+        }
+    }
+
+    /**
+     * 다시 만들 때 읽은 회원 (member_id 순), 읽는 동안 바뀐 회원의 읽은 값을 찾는다
+     */
+    private static final class MemberRows {
+        private static final long NO_TEAM = Long.MIN_VALUE;
+
+        private long[] ids = new long[LOAD_FETCH_SIZE];
+        private long[] teamIds = new long[LOAD_FETCH_SIZE];
+        private int[] ages = new int[LOAD_FETCH_SIZE];
+        private int size;
+
+        private void add(long id, Long teamId, int age) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                teamIds = Arrays.copyOf(teamIds, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+            }
+            ids[size] = id;
+            teamIds[size] = teamId != null ? teamId : NO_TEAM;
+            ages[size] = age;
+            size++;
+        }
+
+        private int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        private Long teamId(int index) {
+            return teamIds[index] != NO_TEAM ? teamIds[index] : null;
+        }
+    }
+
+    private static final class MemberState {
+        private final Long teamId;
+        private final int age;
+
+        private MemberState(Long teamId, int age) {
+            this.teamId = teamId;
+            this.age = age;
+        }
+    }
+
+    /**
+     * 다시 만드는 동안 커밋된 변경 (id 별 최신 상태라 몇 번을 덮어써도 결과가 같다)
+     */
+    private static final class Delta {
+        // 팀 id -> 팀 이름
+        private final Map<Long, String> teams = new HashMap<>();
+        private final Set<Long> removedTeams = new HashSet<>();
+        // 회원 id -> 최신 상태 (삭제는 null)
+        private final Map<Long, MemberState> members = new HashMap<>();
+
+        private void team(Long teamId, String teamName) {
+            teams.put(teamId, teamName);
+            removedTeams.remove(teamId);
+        }
+
+        private void removeTeam(Long teamId) {
+            teams.remove(teamId);
+            removedTeams.add(teamId);
+        }
+
+        private void member(Long memberId, MemberState state) {
+            members.put(memberId, state);
+        }
+
+        /**
+         * 바뀐 회원은 읽은 값을 빼고 최신 상태를 더한다.
+         *
+         * @return 맞지 않는 변경이 있으면 (이벤트 없는 쓰기가 섞인 경우) false
+         */
+        private boolean applyTo(Loaded loaded) {
+            Aggregates rebuilt = loaded.aggregates;
+            for (Map.Entry<Long, String> entry : teams.entrySet()) {
+                rebuilt.teams.computeIfAbsent(entry.getKey(), id -> new TeamAggregate(null)).teamName = entry.getValue();
+            }
+            for (Map.Entry<Long, MemberState> entry : members.entrySet()) {
+                int index = loaded.members.indexOf(entry.getKey());
+                if (index >= 0 && !rebuilt.remove(loaded.members.teamId(index), loaded.members.ages[index])) {
+                    return false;
+                }
+                MemberState state = entry.getValue();
+                if (state != null && !rebuilt.add(state.teamId, state.age)) {
+                    return false;
+                }
+            }
+            for (Long teamId : removedTeams) {
+                rebuilt.teams.remove(teamId);
+            }
+            return true;
+        }
+    }
+
+    private static class TeamAggregate {
+        private String teamName;
+        private long count;
+        private long sum;
+        // 나이 -> 회원 수, 삭제 후에도 min / max 를 구할 수 있도록 나이별로 센다
+        private final TreeMap<Integer, Long> ages = new TreeMap<>();
+
+        private TeamAggregate(String teamName) {
+            this.teamName = teamName;
+        }
+
+        private void add(int age, long members) {
+            count += members;
+            sum += (long) age * members;
+            ages.merge(age, members, Long::sum);
+        }
+
+        private boolean remove(int age) {
+            Long members = ages.get(age);
+            if (members == null) {
+                return false;
+            }
+            if (members == 1) {
+                ages.remove(age);
+            } else {
+                ages.put(age, members - 1);
+            }
+            count--;
+            sum -= age;
+            return true;
+        }
+
+        private long count(Integer ageGoe, Integer ageLoe) {
+            if (ageGoe == null && ageLoe == null) {
+                return count;
+            }
+            int from = ageGoe != null ? ageGoe : Integer.MIN_VALUE;
+            int to = ageLoe != null ? ageLoe : Integer.MAX_VALUE;
+            if (from > to) {
+                return 0;
+            }
+            long members = 0;
+            for (long ageMembers : ages.subMap(from, true, to, true).values()) {
+                members += ageMembers;
+            }
+            return members;
+        }
+
+        private TeamStatisticsDto toDto(Long teamId) {
+            return new TeamStatisticsDto(teamId, teamName, count, sum,
+                    ages.isEmpty() ? null : ages.firstKey(),
+                    ages.isEmpty() ? null : ages.lastKey());
+        }
+    }
+}
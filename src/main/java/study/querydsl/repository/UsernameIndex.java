@@ -0,0 +1,528 @@
+package study.querydsl.repository;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.metrics.StatementCounter;
+import study.querydsl.repository.support.BulkWriteEvent;
+import study.querydsl.repository.support.PostCommitEntityListener;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * username 접두어 자동완성 인덱스 (LIKE 'abc%' 대신)
+ * - 스냅샷: (username, member_id) 순으로 정렬한 배열, 같은 username 은 같은 String 인스턴스를 공유한다
+ * - 델타: 스냅샷 이후 커밋된 회원 persist / remove / username 변경 (Hibernate post-commit 이벤트)
+ * 조회는 이진 탐색 + limit 건 순회라 회원 수와 거의 무관하고, 델타가 max-delta 를 넘으면 백그라운드에서 스냅샷에 합친다.
+ * username 을 바꿀 수 있는 벌크 연산({@link BulkWriteEvent})이나 {@link #invalidate()} 후에는
+ * 다음 조회 때 백그라운드에서 커밋된 데이터로 다시 만들고, 그동안은 이전 스냅샷(+ 이후 커밋된 변경)을 쓴다.
+ * 처음 만들 때만 조회한 쪽이 기다린다. (합치기 / 다시 만들기는 커밋 콜백이나 요청 스레드에서 하지 않는다)
+ * 대소문자를 구분한다. (LIKE 와 같은 바이너리 비교)
+ *
+ * metrics
+ * - member.username.index.entries: 스냅샷 + 델타 항목 수
+ * - member.username.index.memory: 추정 메모리 (bytes)
+ * - member.username.index.rebuilds: 커밋된 데이터로 다시 만든 횟수
+ */
+@Slf4j
+@Component
+public class UsernameIndex extends PostCommitEntityListener {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+    // 델타 항목 하나 (Key, skip list 노드, 맵 노드, Long) 추정 크기
+    private static final long DELTA_ENTRY_BYTES = 160;
+
+    private final int maxDelta;
+    // 다시 만들기와 합치기를 한 스레드에서 차례로 실행한다
+    private final ExecutorService executor;
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile State state = new State(Snapshot.EMPTY);
+    // 아래 필드는 this 로 보호
+    private boolean loaded;
+    private boolean stale = true;
+    private boolean rebuildScheduled;
+    private boolean compactionScheduled;
+    private long invalidations;
+    // 다시 만드는 동안 커밋된 변경 (새 스냅샷에 얹는다)
+    private State pending;
+
+    public UsernameIndex(EntityManagerFactory entityManagerFactory,
+                         @Value("${member.username-index.max-delta:10000}") int maxDelta,
+                         MeterRegistry meterRegistry) {
+        super(entityManagerFactory, Member.class);
+        this.maxDelta = maxDelta;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "username-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("member.username.index.entries", this, index -> index.state.size())
+                .register(meterRegistry);
+        Gauge.builder("member.username.index.memory", this, UsernameIndex::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("member.username.index.rebuilds", rebuilds, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * prefix 로 시작하는 username 을 (username, member_id) 순으로 최대 limit 건
+     */
+    public List<UsernameMatch> complete(String prefix, int limit) {
+        State current = current();
+        Snapshot snapshot = current.snapshot;
+        List<UsernameMatch> matches = new ArrayList<>(Math.min(limit, 64));
+
+        int i = snapshot.lowerBound(prefix);
+        Iterator<Key> delta = current.added.tailSet(new Key(prefix, Long.MIN_VALUE)).iterator();
+        Key nextDelta = nextMatch(delta, prefix);
+
+        while (matches.size() < limit) {
+            // 델타에서 바뀐 회원은 스냅샷 항목을 건너뛴다
+            while (i < snapshot.size() && snapshot.usernames[i].startsWith(prefix)
+                    && current.touched.containsKey(snapshot.memberIds[i])) {
+                i++;
+            }
+            boolean snapshotMatch = i < snapshot.size() && snapshot.usernames[i].startsWith(prefix);
+            if (!snapshotMatch && nextDelta == null) {
+                break;
+            }
+            if (snapshotMatch && (nextDelta == null || nextDelta.compareTo(snapshot.usernames[i], snapshot.memberIds[i]) > 0)) {
+                matches.add(new UsernameMatch(snapshot.memberIds[i], snapshot.usernames[i]));
+                i++;
+            } else {
+                matches.add(new UsernameMatch(nextDelta.memberId, nextDelta.username));
+                nextDelta = nextMatch(delta, prefix);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * username 이 정확히 같은 회원 수 (건수 추정용)
+     */
+    public long count(String username) {
+        State current = current();
+        Snapshot snapshot = current.snapshot;
+        long count = 0;
+        for (int i = snapshot.lowerBound(username); i < snapshot.size() && snapshot.usernames[i].equals(username); i++) {
+            if (!current.touched.containsKey(snapshot.memberIds[i])) {
+                count++;
+            }
+        }
+        return count + current.added
+                .subSet(new Key(username, Long.MIN_VALUE), true, new Key(username, Long.MAX_VALUE), true)
+                .size();
+    }
+
+    /**
+     * 다음 조회 때 커밋된 데이터로 다시 만든다. 다시 만드는 동안은 지금 인덱스를 그대로 쓴다.
+     */
+    public synchronized void invalidate() {
+        stale = true;
+        invalidations++;
+    }
+
+    // 나이만 바꾸는 update 처럼 username 이 그대로인 벌크 쓰기는 무시한다
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkWrite(BulkWriteEvent event) {
+        if (event.getEntityType() == Member.class && event.mayChange("username")) {
+            invalidate();
+        }
+    }
+
+    public long memoryBytes() {
+        State current = state;
+        return current.snapshot.memoryBytes + (long) current.touched.size() * DELTA_ENTRY_BYTES;
+    }
+
+    private State current() {
+        synchronized (this) {
+            if (!stale) {
+                return state;
+            }
+            if (loaded) {
+                scheduleRebuild();
+                return state;
+            }
+        }
+
+        // 처음 만들 때만 기다린다
+        loadLock.lock();
+        try {
+            synchronized (this) {
+                if (loaded) {
+                    return state;
+                }
+            }
+            rebuild();
+            return state;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // this 락 안에서 호출
+    private void scheduleRebuild() {
+        if (rebuildScheduled) {
+            return;
+        }
+        rebuildScheduled = true;
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild username index", e);
+            } finally {
+                synchronized (this) {
+                    rebuildScheduled = false;
+                }
+            }
+        });
+    }
+
+    private void rebuild() {
+        long startInvalidations;
+        synchronized (this) {
+            startInvalidations = invalidations;
+            pending = new State(Snapshot.EMPTY);
+        }
+
+        Snapshot loadedSnapshot;
+        try {
+            loadedSnapshot = StatementCounter.uncounted(this::load);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            // 읽는 동안 커밋된 변경은 pending 에 있고, 델타의 회원은 스냅샷보다 우선하므로 그대로 얹는다
+            state = new State(loadedSnapshot, pending);
+            pending = null;
+            loaded = true;
+            stale = invalidations != startInvalidations;
+        }
+        rebuilds.incrementAndGet();
+    }
+
+    /**
+     * 스냅샷과 지금까지의 델타를 합친 새 스냅샷을 만든다. (O(전체 username), 백그라운드)
+     * 합치는 동안 커밋된 변경은 새 상태의 델타로 옮긴다.
+     */
+    private void compact() {
+        try {
+            State base;
+            Map<Long, Key> merging;
+            synchronized (this) {
+                base = state;
+                merging = new HashMap<>(base.touched);
+            }
+
+            Snapshot merged = base.snapshot.merge(merging);
+            synchronized (this) {
+                // 그 사이 다시 만들었으면 버린다
+                if (state != base) {
+                    return;
+                }
+                State compacted = new State(merged);
+                for (Map.Entry<Long, Key> entry : base.touched.entrySet()) {
+                    // apply 는 매번 새 Key 를 넣으므로 같은 인스턴스면 합친 스냅샷에 이미 들어간 값이다
+                    if (merging.get(entry.getKey()) != entry.getValue()) {
+                        compacted.record(entry.getKey(), entry.getValue());
+                    }
+                }
+                state = compacted;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to compact username index", e);
+        } finally {
+            synchronized (this) {
+                compactionScheduled = false;
+            }
+        }
+    }
+
+    private Snapshot load() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        List<Key> keys = new ArrayList<>();
+        try (CloseableIterator<Tuple> iterator = new JPAQueryFactory(entityManager)
+                .select(member.username, member.id)
+                .from(member)
+                .where(member.username.isNotNull())
+                .orderBy(member.username.asc(), member.id.asc())
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FETCH_SIZE, LOAD_FETCH_SIZE)
+                .iterate()) {
+            while (iterator.hasNext()) {
+                Tuple row = iterator.next();
+                keys.add(new Key(row.get(member.username), row.get(member.id)));
+            }
+        } finally {
+            entityManager.close();
+        }
+        // DB 정렬 규칙(collation)이 String 비교와 다를 수 있으므로 다시 정렬 (거의 정렬된 입력이라 빠르다)
+        Key[] sorted = keys.toArray(new Key[0]);
+        Arrays.sort(sorted);
+        return Snapshot.of(sorted);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member inserted = (Member) event.getEntity();
+            apply(inserted.getId(), inserted.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member updated = (Member) event.getEntity();
+            apply(updated.getId(), updated.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            apply((Long) event.getId(), null);
+        }
+    }
+
+    /**
+     * 회원의 최신 username 을 델타에 기록한다. (null 이면 삭제)
+     */
+    private synchronized void apply(Long memberId, String username) {
+        Key key = new Key(username, memberId);
+        if (pending != null) {
+            pending.record(memberId, key);
+        }
+        // 아직 한 번도 만들지 않았으면 기록할 필요가 없다
+        if (!loaded) {
+            return;
+        }
+        State current = state;
+        current.record(memberId, key);
+
+        // 다시 만드는 중이거나 다시 만들 예정이면 합치지 않는다
+        if (!stale && pending == null && !compactionScheduled && current.touched.size() > maxDelta) {
+            compactionScheduled = true;
+            executor.execute(this::compact);
+        }
+    }
+
+    private static Key nextMatch(Iterator<Key> delta, String prefix) {
+        if (!delta.hasNext()) {
+            return null;
+        }
+        Key next = delta.next();
+        return next.username.startsWith(prefix) ? next : null;
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private final String username;
+        private final long memberId;
+
+        private Key(String username, long memberId) {
+            this.username = username;
+            this.memberId = memberId;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return compareTo(other.username, other.memberId);
+        }
+
+        private int compareTo(String otherUsername, long otherMemberId) {
+            int compared = username.compareTo(otherUsername);
+            return compared != 0 ? compared : Long.compare(memberId, otherMemberId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return memberId == key.memberId && username.equals(key.username);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * username.hashCode() + Long.hashCode(memberId);
+        }
+    }
+
+    /**
+     * 스냅샷 + 델타
+     * touched: 스냅샷 이후 바뀐 회원의 최신 상태 (삭제는 username null), 스냅샷의 같은 회원 항목은 무시한다
+     * added: touched 중 살아 있는 항목을 정렬해 둔 것
+     */
+    private static final class State {
+        private final Snapshot snapshot;
+        private final Map<Long, Key> touched;
+        private final NavigableSet<Key> added;
+
+        private State(Snapshot snapshot) {
+            this.snapshot = snapshot;
+            this.touched = new ConcurrentHashMap<>();
+            this.added = new ConcurrentSkipListSet<>();
+        }
+
+        private State(Snapshot snapshot, State delta) {
+            this.snapshot = snapshot;
+            this.touched = delta.touched;
+            this.added = delta.added;
+        }
+
+        private int size() {
+            return snapshot.size() + added.size();
+        }
+
+        /**
+         * 회원의 최신 username 을 기록한다. (username null 이면 삭제)
+         */
+        private void record(Long memberId, Key key) {
+            Key previous = touched.put(memberId, key);
+            if (previous != null && previous.username != null) {
+                added.remove(previous);
+            }
+            if (key.username != null) {
+                added.add(key);
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new String[0], new long[0], 0);
+
+        private final String[] usernames;
+        private final long[] memberIds;
+        private final long memoryBytes;
+
+        private Snapshot(String[] usernames, long[] memberIds, long memoryBytes) {
+            this.usernames = usernames;
+            this.memberIds = memberIds;
+            this.memoryBytes = memoryBytes;
+        }
+
+        /**
+         * @param keys (username, member_id) 순으로 정렬된 항목
+         */
+        private static Snapshot of(Key[] keys) {
+            String[] usernames = new String[keys.length];
+            long[] memberIds = new long[keys.length];
+            // 배열 헤더 2개 + 항목당 참조 4바이트 + long 8바이트
+            long memoryBytes = 32 + 12L * keys.length;
+            String previous = null;
+            for (int i = 0; i < keys.length; i++) {
+                String username = keys[i].username;
+                if (username.equals(previous)) {
+                    username = previous;
+                } else {
+                    // String 객체 24바이트 + byte[] 헤더 16바이트 + 내용 (Latin-1 기준), 8바이트 정렬
+                    memoryBytes += 24 + ((16 + username.length() + 7) & ~7);
+                    previous = username;
+                }
+                usernames[i] = username;
+                memberIds[i] = keys[i].memberId;
+            }
+            return new Snapshot(usernames, memberIds, memoryBytes);
+        }
+
+        private int size() {
+            return usernames.length;
+        }
+
+        /**
+         * delta (회원 id -> 최신 상태) 를 반영한 새 스냅샷
+         */
+        private Snapshot merge(Map<Long, Key> delta) {
+            List<Key> live = new ArrayList<>(delta.size());
+            for (Key key : delta.values()) {
+                if (key.username != null) {
+                    live.add(key);
+                }
+            }
+            Collections.sort(live);
+
+            List<Key> merged = new ArrayList<>(size() + live.size());
+            int next = 0;
+            for (int i = 0; i < size(); i++) {
+                if (delta.containsKey(memberIds[i])) {
+                    continue;
+                }
+                while (next < live.size() && live.get(next).compareTo(usernames[i], memberIds[i]) < 0) {
+                    merged.add(live.get(next++));
+                }
+                merged.add(new Key(usernames[i], memberIds[i]));
+            }
+            while (next < live.size()) {
+                merged.add(live.get(next++));
+            }
+            return of(merged.toArray(new Key[0]));
+        }
+
+        /**
+         * username 이 prefix 이상인 첫 위치
+         */
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = usernames.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (usernames[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
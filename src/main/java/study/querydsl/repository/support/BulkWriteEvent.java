@@ -0,0 +1,40 @@
+package study.querydsl.repository.support;
+
+import java.util.Set;
+
+/**
+ * Querydsl 벌크 update / delete / insert 실행 후 발행되는 이벤트
+ * 벌크 연산은 엔티티 이벤트(영속성 컨텍스트)를 거치지 않으므로, 엔티티 단위로 유지하는 집계는 이 이벤트로 다시 만든다.
+ */
+public class BulkWriteEvent {
+
+    private final Class<?> entityType;
+    private final long affectedRows;
+    // update 가 set 한 프로퍼티 (루트 엔티티 기준), update 가 아니면 null
+    private final Set<String> updatedProperties;
+
+    public BulkWriteEvent(Class<?> entityType, long affectedRows) {
+        this(entityType, affectedRows, null);
+    }
+
+    public BulkWriteEvent(Class<?> entityType, long affectedRows, Set<String> updatedProperties) {
+        this.entityType = entityType;
+        this.affectedRows = affectedRows;
+        this.updatedProperties = updatedProperties;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public long getAffectedRows() {
+        return affectedRows;
+    }
+
+    /**
+     * property 값이 바뀌었을 수 있는지 (insert / delete 는 항상 true)
+     */
+    public boolean mayChange(String property) {
+        return updatedProperties == null || updatedProperties.contains(property);
+    }
+}
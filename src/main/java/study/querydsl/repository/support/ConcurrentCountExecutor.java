@@ -0,0 +1,146 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.hibernate.FlushMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.datasource.DataSourceRoute;
+import study.querydsl.datasource.DataSourceRouting;
+import study.querydsl.metrics.QueryMetricsContext;
+import study.querydsl.metrics.StatementCounter;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 페이징 count 쿼리를 content 쿼리와 동시에 실행하는 실행기 (paging.concurrent-count.enabled=true 일 때)
+ * count 는 별도의 읽기 전용 EntityManager 로 실행하므로 현재 트랜잭션의 커밋되지 않은 변경은 보이지 않는다.
+ * 그래서 읽기-쓰기 트랜잭션 안에서는 {@link #canRunConcurrently()} 가 false 이고 기존처럼 순차 실행한다.
+ * 풀과 큐가 가득 차면 호출 스레드에서 실행한다. (CallerRunsPolicy)
+ * count 커넥션은 호출한 스레드와 같은 풀(primary / replica)에서 가져오고, SQL 문 수는 호출한 요청의 카운터에 센다.
+ * 쿼리 / JDBC 메트릭의 method 태그도 호출한 리포지토리 메서드로 남긴다.
+ */
+@Component
+public class ConcurrentCountExecutor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+
+    public ConcurrentCountExecutor(EntityManagerFactory entityManagerFactory,
+                                   @Value("${paging.concurrent-count.enabled:false}") boolean enabled,
+                                   @Value("${paging.concurrent-count.threads:4}") int threads,
+                                   @Value("${paging.concurrent-count.queue-size:100}") int queueSize,
+                                   MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "paging-count-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        new ExecutorServiceMetrics(executor, "paging.count", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public boolean canRunConcurrently() {
+        return enabled && !(TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    /**
+     * 새 읽기 전용 EntityManager 로 count 를 실행한다.
+     * 반환된 Future 를 cancel 하면 실행 중인 JDBC 쿼리도 취소한다. (Session.cancelQuery)
+     */
+    public Future<Long> submit(Function<EntityManager, Long> count) {
+        AtomicReference<Session> running = new AtomicReference<>();
+        DataSourceRoute route = DataSourceRouting.current();
+        StatementCounter.Scope statements = StatementCounter.scope();
+        QueryMetricsContext.Snapshot metrics = QueryMetricsContext.capture();
+        CountTask task = new CountTask(() -> StatementCounter.call(statements, () -> QueryMetricsContext.call(metrics,
+                () -> DataSourceRouting.call(route, () -> {
+                    EntityManager entityManager = entityManagerFactory.createEntityManager();
+                    try {
+                        Session session = entityManager.unwrap(Session.class);
+                        session.setDefaultReadOnly(true);
+                        session.setHibernateFlushMode(FlushMode.MANUAL);
+                        running.set(session);
+                        return count.apply(entityManager);
+                    } finally {
+                        running.set(null);
+                        entityManager.close();
+                    }
+                }))), running);
+
+        executor.execute(task);
+        return task;
+    }
+
+    public long join(Future<Long> count) {
+        try {
+            return count.get();
+        } catch (InterruptedException e) {
+            count.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for count query");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class CountTask extends FutureTask<Long> {
+
+        private final AtomicReference<Session> running;
+
+        CountTask(Callable<Long> callable, AtomicReference<Session> running) {
+            super(callable);
+            this.running = running;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Session session = running.get();
+            if (cancelled && session != null) {
+                try {
+                    session.cancelQuery();
+                } catch (HibernateException ignored) {
+                    // 이미 끝났거나 닫힌 세션
+                }
+            }
+            return cancelled;
+        }
+    }
+}
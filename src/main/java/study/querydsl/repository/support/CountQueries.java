@@ -0,0 +1,321 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.SubQueryExpressionImpl;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * content 쿼리에서 count 쿼리를 만든다.
+ * - order by, offset / limit 제거, fetch join 은 일반 join 으로
+ * - where / group by / having 이 참조하지 않는 to-one left join 제거 (to-one left join 은 건수를 바꾸지 않는다)
+ * - 엔티티 전체 대신 count(root) (Hibernate 는 id 컬럼으로 센다)
+ * - group by 쿼리는 그룹 수를 DB 에서 센다: 그룹마다 하나뿐인 min(id) 를 서브쿼리로 골라 그 row 수를 센다
+ *   (JPQL 은 from 절 서브쿼리가 없으므로)
+ *
+ * 만들 수 없는 모양(루트가 여러 개이거나 to-many join 을 거치는 group by, 여러 컬럼 distinct 등)이면 null 을 돌려준다.
+ */
+final class CountQueries {
+
+    private static final String COUNT_ROOT = "countRoot";
+
+    private CountQueries() {
+    }
+
+    static JPAQuery<Long> derive(JPAQuery<?> query, JPAQueryFactory queryFactory, Metamodel metamodel) {
+        QueryMetadata source = query.getMetadata();
+        List<JoinExpression> joins = requiredJoins(source, metamodel);
+        EntityPath<?> root = singleRoot(source);
+
+        if (!source.getGroupBy().isEmpty()) {
+            return root != null ? groupCount(source, joins, root, queryFactory, metamodel) : null;
+        }
+
+        Expression<Long> count;
+        if (source.isDistinct()) {
+            Expression<?> projection = source.getProjection();
+            if (projection == null || projection instanceof FactoryExpression) {
+                return null;
+            }
+            count = ExpressionUtils.operation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, projection);
+        } else {
+            count = root != null ? ExpressionUtils.operation(Long.class, Ops.AggOps.COUNT_AGG, root) : Wildcard.count;
+        }
+
+        JPAQuery<Long> countQuery = queryFactory.select(count);
+        QueryMetadata metadata = countQuery.getMetadata();
+        copyJoins(joins, metadata);
+        copyWhere(source, metadata);
+        copyParams(source, metadata);
+        return countQuery;
+    }
+
+    /**
+     * select count(countRoot) from Root countRoot
+     * where countRoot.id in (select min(root.id) from ... where ... group by ... having ...)
+     */
+    private static JPAQuery<Long> groupCount(QueryMetadata source, List<JoinExpression> joins, EntityPath<?> root,
+                                             JPAQueryFactory queryFactory, Metamodel metamodel) {
+        // to-many / 엔티티 join 이 있으면 root 한 row 가 여러 그룹에 들어가 그룹들의 min(id) 가 겹치므로 적게 센다
+        for (JoinExpression join : joins) {
+            if (join.getType() != JoinType.DEFAULT && !isToOneJoin(join, metamodel)) {
+                return null;
+            }
+        }
+        SingularAttribute<?, ?> id = idOf(root.getType(), metamodel);
+        if (id == null) {
+            return null;
+        }
+        Class<?> idType = id.getJavaType();
+
+        DefaultQueryMetadata groups = new DefaultQueryMetadata();
+        copyJoins(joins, groups);
+        copyWhere(source, groups);
+        for (Expression<?> groupBy : source.getGroupBy()) {
+            groups.addGroupBy(groupBy);
+        }
+        if (source.getHaving() != null) {
+            groups.addHaving(source.getHaving());
+        }
+        Path<?> groupId = new PathBuilder<>(root.getType(), root.getMetadata()).get(id.getName(), idType);
+        groups.setProjection(ExpressionUtils.operation(idType, Ops.AggOps.MIN_AGG, groupId));
+
+        PathBuilder<?> countRoot = new PathBuilder<>(root.getType(), COUNT_ROOT);
+        JPAQuery<Long> countQuery = queryFactory
+                .select(ExpressionUtils.operation(Long.class, Ops.AggOps.COUNT_AGG, countRoot))
+                .from(countRoot)
+                .where(ExpressionUtils.predicate(Ops.IN, countRoot.get(id.getName(), idType),
+                        new SubQueryExpressionImpl<>(idType, groups)));
+        copyParams(source, countQuery.getMetadata());
+        return countQuery;
+    }
+
+    /**
+     * 뒤에서부터 보면서 제거할 수 없거나 참조되는 join 만 남긴다. (join 은 앞선 alias 만 참조할 수 있다)
+     */
+    private static List<JoinExpression> requiredJoins(QueryMetadata source, Metamodel metamodel) {
+        Set<Expression<?>> referenced = new HashSet<>();
+        collect(source.getWhere(), referenced);
+        collect(source.getHaving(), referenced);
+        for (Expression<?> groupBy : source.getGroupBy()) {
+            collect(groupBy, referenced);
+        }
+        if (source.isDistinct()) {
+            collect(source.getProjection(), referenced);
+        }
+
+        List<JoinExpression> joins = source.getJoins();
+        List<JoinExpression> required = new ArrayList<>(joins.size());
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            JoinExpression join = joins.get(i);
+            Path<?> alias = removableAlias(join, metamodel);
+            if (alias != null && !referenced.contains(alias)) {
+                continue;
+            }
+            required.add(join);
+            collect(join.getTarget(), referenced);
+            collect(join.getCondition(), referenced);
+        }
+        Collections.reverse(required);
+        return required;
+    }
+
+    /**
+     * leftJoin(member.team, team) 처럼 alias 가 있는 to-one 연관관계 left join 이면 그 alias
+     */
+    private static Path<?> removableAlias(JoinExpression join, Metamodel metamodel) {
+        if (join.getType() != JoinType.LEFTJOIN || !(join.getTarget() instanceof Operation)) {
+            return null;
+        }
+        Operation<?> target = (Operation<?>) join.getTarget();
+        if (target.getOperator() != Ops.ALIAS || !(target.getArg(1) instanceof Path)) {
+            return null;
+        }
+        return isToOneJoin(join, metamodel) ? (Path<?>) target.getArg(1) : null;
+    }
+
+    /**
+     * join(member.team, team) / join(member.team) 처럼 to-one 연관관계를 따라가는 join 이면 true
+     * (컬렉션 연관관계나 엔티티 join, 모르는 모양이면 false)
+     */
+    private static boolean isToOneJoin(JoinExpression join, Metamodel metamodel) {
+        Expression<?> target = join.getTarget();
+        if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+            target = ((Operation<?>) target).getArg(0);
+        }
+        if (!(target instanceof Path)) {
+            return false;
+        }
+        Path<?> association = (Path<?>) target;
+        Path<?> parent = association.getMetadata().getParent();
+        if (parent == null) {
+            return false;
+        }
+        try {
+            Attribute<?, ?> attribute = metamodel.managedType(parent.getType())
+                    .getAttribute(association.getMetadata().getName());
+            return !attribute.isCollection();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static EntityPath<?> singleRoot(QueryMetadata source) {
+        EntityPath<?> root = null;
+        for (JoinExpression join : source.getJoins()) {
+            if (join.getType() != JoinType.DEFAULT) {
+                continue;
+            }
+            if (root != null || !(join.getTarget() instanceof EntityPath)) {
+                return null;
+            }
+            root = (EntityPath<?>) join.getTarget();
+        }
+        return root;
+    }
+
+    private static SingularAttribute<?, ?> idOf(Class<?> entityClass, Metamodel metamodel) {
+        try {
+            EntityType<?> entityType = metamodel.entity(entityClass);
+            if (!entityType.hasSingleIdAttribute()) {
+                return null;
+            }
+            return entityType.getId(entityType.getIdType().getJavaType());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void copyJoins(List<JoinExpression> joins, QueryMetadata target) {
+        for (JoinExpression join : joins) {
+            target.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                target.addJoinCondition(join.getCondition());
+            }
+            for (JoinFlag flag : join.getFlags()) {
+                if (!JPAQueryMixin.FETCH.equals(flag) && !JPAQueryMixin.FETCH_ALL_PROPERTIES.equals(flag)) {
+                    target.addJoinFlag(flag);
+                }
+            }
+        }
+    }
+
+    private static void copyWhere(QueryMetadata source, QueryMetadata target) {
+        if (source.getWhere() != null) {
+            target.addWhere(source.getWhere());
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void copyParams(QueryMetadata source, QueryMetadata target) {
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            target.setParam((ParamExpression) param.getKey(), param.getValue());
+        }
+    }
+
+    private static void collect(Expression<?> expression, Set<Expression<?>> roots) {
+        if (expression != null) {
+            expression.accept(RootCollector.INSTANCE, roots);
+        }
+    }
+
+    /**
+     * 표현식이 참조하는 경로의 루트(alias)를 모은다.
+     */
+    private static class RootCollector implements Visitor<Void, Set<Expression<?>>> {
+
+        private static final RootCollector INSTANCE = new RootCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Expression<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Expression<?>> roots) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Expression<?>> roots) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Expression<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Expression<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Expression<?>> roots) {
+            QueryMetadata metadata = expr.getMetadata();
+            for (JoinExpression join : metadata.getJoins()) {
+                collect(join.getTarget(), roots);
+                collect(join.getCondition(), roots);
+            }
+            collect(metadata.getWhere(), roots);
+            collect(metadata.getHaving(), roots);
+            collect(metadata.getProjection(), roots);
+            for (Expression<?> groupBy : metadata.getGroupBy()) {
+                collect(groupBy, roots);
+            }
+            for (OrderSpecifier<?> order : metadata.getOrderBy()) {
+                collect(order.getTarget(), roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Expression<?>> roots) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    ((Expression<?>) arg).accept(this, roots);
+                }
+            }
+            return null;
+        }
+    }
+}
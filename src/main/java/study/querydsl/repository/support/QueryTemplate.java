@@ -0,0 +1,108 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionUtils;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import study.querydsl.dto.InvalidSearchParameterException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 한 번 직렬화한 JPQL 을 재사용하는 쿼리 템플릿
+ * 검색 조건의 모양(shape)마다 Querydsl 표현식 트리 생성 + JPQL 직렬화를 한 번만 하고,
+ * 호출마다 {@link com.querydsl.core.types.dsl.Param} 값만 바인딩한다.
+ * 같은 JPQL 문자열이 재사용되므로 Hibernate 쿼리 플랜 캐시도 항상 같은 키로 조회된다.
+ *
+ * @see Querydsl4RepositorySupport#queryTemplate
+ */
+public class QueryTemplate<T> {
+
+    private final String jpql;
+    private final List<Object> constants;
+    private final String countJpql;
+    private final List<Object> countConstants;
+    private final FactoryExpression<T> projection;
+
+    private QueryTemplate(String jpql, List<Object> constants,
+                          String countJpql, List<Object> countConstants,
+                          FactoryExpression<T> projection) {
+        this.jpql = jpql;
+        this.constants = constants;
+        this.countJpql = countJpql;
+        this.countConstants = countConstants;
+        this.projection = projection;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> QueryTemplate<T> of(JPAQuery<T> query, EntityManager entityManager) {
+        JPQLTemplates templates = JPAProvider.getTemplates(entityManager);
+        QueryMetadata metadata = query.getMetadata();
+
+        JPQLSerializer serializer = new JPQLSerializer(templates, entityManager);
+        serializer.serialize(metadata, false, null);
+
+        JPQLSerializer countSerializer = new JPQLSerializer(templates, entityManager);
+        countSerializer.serialize(metadata, true, null);
+
+        Expression<?> select = metadata.getProjection();
+        FactoryExpression<T> projection = select instanceof FactoryExpression
+                ? FactoryExpressionUtils.wrap((FactoryExpression<T>) select)
+                : null;
+
+        return new QueryTemplate<>(
+                serializer.toString(), new ArrayList<>(serializer.getConstants()),
+                countSerializer.toString(), new ArrayList<>(countSerializer.getConstants()),
+                projection);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<T> fetch(EntityManager entityManager, Map<ParamExpression<?>, Object> params, long offset, int limit) {
+        Query query = entityManager.createQuery(jpql);
+        JPAUtil.setConstants(query, constants, params);
+        query.setFirstResult(firstResult(offset));
+        query.setMaxResults(limit);
+
+        List<?> rows = query.getResultList();
+        if (projection == null) {
+            return (List<T>) rows;
+        }
+
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(projection.newInstance(row instanceof Object[] ? (Object[]) row : new Object[]{row}));
+        }
+        return result;
+    }
+
+    /**
+     * JPA 의 firstResult 는 int 라서 그 범위를 넘는 offset 은 잘라내지 않고 잘못된 요청으로 거절한다.
+     */
+    private static int firstResult(long offset) {
+        try {
+            return Math.toIntExact(offset);
+        } catch (ArithmeticException e) {
+            throw new InvalidSearchParameterException("Offset too large: " + offset, e);
+        }
+    }
+
+    public long fetchCount(EntityManager entityManager, Map<ParamExpression<?>, Object> params) {
+        Query query = entityManager.createQuery(countJpql);
+        JPAUtil.setConstants(query, countConstants, params);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+}
@@ -2,12 +2,16 @@ package study.querydsl.repository.support;
 
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ParamExpression;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
@@ -15,11 +19,22 @@ import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.CountEstimate;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
@@ -29,10 +44,14 @@ import java.util.function.Function;
  */
 @Repository
 public abstract class Querydsl4RepositorySupport {
+    private static final int READ_ONLY_FETCH_SIZE = 500;
+
     private final Class domainClass;
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private ConcurrentCountExecutor countExecutor;
+    private final Map<String, QueryTemplate<?>> queryTemplates = new ConcurrentHashMap<>();
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
@@ -48,7 +67,17 @@ public abstract class Querydsl4RepositorySupport {
 
         this.entityManager = entityManager;
         this.querydsl = new Querydsl(entityManager, new PathBuilder<>(path.getType(), path.getMetadata()));
-        this.queryFactory = new JPAQueryFactory(entityManager);
+    }
+
+    @Autowired
+    public void setQueryFactory(JPAQueryFactory queryFactory) {
+        Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        this.queryFactory = queryFactory;
+    }
+
+    @Autowired
+    public void setCountExecutor(ConcurrentCountExecutor countExecutor) {
+        this.countExecutor = countExecutor;
     }
 
     @PostConstruct
@@ -56,6 +85,7 @@ public abstract class Querydsl4RepositorySupport {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(countExecutor, "CountExecutor must not be null!");
     }
 
     protected JPAQueryFactory getQueryFactory() {
@@ -78,11 +108,52 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    /**
+     * 조회만 하는 엔티티 쿼리용 힌트
+     * - read-only: 변경 감지용 스냅샷을 만들지 않는다 (영속성 컨텍스트 메모리, flush 시 비교 비용 감소)
+     * - fetch size: 큰 목록을 작은 왕복 여러 번 대신 적당한 묶음으로 읽는다
+     * - flush mode COMMIT: 쿼리 전에 자동 flush 하지 않는다
+     * 호출하는 메서드는 @Transactional(readOnly = true) 로 읽기 전용 트랜잭션에서 실행한다.
+     */
+    protected <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        return query
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FETCH_SIZE, READ_ONLY_FETCH_SIZE)
+                .setFlushMode(FlushModeType.COMMIT);
+    }
+
+    protected <T> JPAQuery<T> selectFromReadOnly(EntityPath<T> from) {
+        return readOnly(selectFrom(from));
+    }
+
+    /**
+     * content 쿼리의 전체 건수를 세는 count 쿼리를 지금 만들어 둔다. (이후 content 쿼리에 페이징을 적용해도 영향 없음)
+     * order by, fetch join, 조건이 참조하지 않는 to-one left join 을 빼고 count(root) 로 센다.
+     * group by 쿼리는 그룹 수를 DB 에서 센다. 만들 수 없는 모양이면 Querydsl 의 fetchCount 를 쓴다.
+     *
+     * @see CountQueries
+     */
+    protected LongSupplier countOf(JPAQuery<?> contentQuery) {
+        JPAQuery<Long> countQuery = CountQueries.derive(contentQuery, getQueryFactory(), getEntityManager().getMetamodel());
+        if (countQuery == null) {
+            JPAQuery<?> fallback = contentQuery.clone(getEntityManager());
+            return fallback::fetchCount;
+        }
+        return () -> {
+            Long count = countQuery.fetchOne();
+            return count != null ? count : 0L;
+        };
+    }
+
+    /**
+     * count 는 content 쿼리에서 만든 count 쿼리로 ({@link #countOf})
+     */
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        LongSupplier count = countOf(jpaQuery);
         List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
 
-        return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, count);
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable,
@@ -93,4 +164,111 @@ public abstract class Querydsl4RepositorySupport {
         JPAQuery countResult = countQuery.apply(getQueryFactory());
         return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
     }
+
+    /**
+     * 전체 건수를 count 쿼리 대신 countEstimate (통계 기반 추정 등)로 채우는 페이징
+     * content 만으로 전체 건수를 알 수 있으면 (마지막 페이지) 추정하지 않는다.
+     */
+    protected <T> ApproximatePage<T> applyApproximatePagination(Pageable pageable,
+                                                                Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                                                Supplier<CountEstimate> countEstimate) {
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+        return ApproximatePage.of(content, pageable, countEstimate);
+    }
+
+    /**
+     * count 쿼리 없이 pageSize + 1 건을 읽어 hasNext 를 판단하는 Slice 조회
+     */
+    protected <T> Slice<T> applySlicing(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        getQuerydsl().applySorting(pageable.getSort(), jpaQuery);
+
+        int size = pageable.getPageSize();
+        List<T> fetched = jpaQuery
+                .offset(pageable.getOffset())
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasNext = fetched.size() > size;
+        List<T> content = hasNext ? new ArrayList<>(fetched.subList(0, size)) : fetched;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * 지연 조인 페이징 (late row lookup)
+     * idQuery 로 정렬/offset/limit 을 id 컬럼만으로 처리하고 (인덱스만으로 건너뛸 수 있음),
+     * 그 페이지의 id 에 대해서만 rowQuery 로 전체 row 를 읽은 뒤 id 순서대로 되돌린다.
+     * offset 이 클수록 버려지는 row 를 읽지 않는 만큼 유리하다.
+     */
+    protected <T, ID> Page<T> applyDeferredPagination(Pageable pageable,
+                                                      Function<JPAQueryFactory, JPAQuery<ID>> idQuery,
+                                                      BiFunction<JPAQueryFactory, List<ID>, JPAQuery<T>> rowQuery,
+                                                      Function<T, ID> idOf,
+                                                      Function<JPAQueryFactory, JPAQuery> countQuery) {
+        List<ID> ids = getQuerydsl().applyPagination(pageable, idQuery.apply(getQueryFactory())).fetch();
+
+        List<T> content;
+        if (ids.isEmpty()) {
+            content = new ArrayList<>();
+        } else {
+            Map<ID, T> rowsById = new HashMap<>();
+            for (T row : rowQuery.apply(getQueryFactory(), ids).fetch()) {
+                rowsById.put(idOf.apply(row), row);
+            }
+            content = new ArrayList<>(ids.size());
+            for (ID id : ids) {
+                T row = rowsById.get(id);
+                if (row != null) {
+                    content.add(row);
+                }
+            }
+        }
+
+        JPAQuery countResult = countQuery.apply(getQueryFactory());
+        return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
+    }
+
+    /**
+     * count 쿼리를 별도 EntityManager 에서 content 쿼리와 동시에 실행한다.
+     * 동시 실행할 수 없으면 (비활성화 또는 읽기-쓰기 트랜잭션) applyPagination 과 같다.
+     * content 쿼리가 실패하거나 count 가 필요 없으면 count 쿼리를 취소한다.
+     */
+    protected <T> Page<T> applyPaginationConcurrently(Pageable pageable,
+                                                      Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                                      Function<JPAQueryFactory, JPAQuery> countQuery) {
+        if (!countExecutor.canRunConcurrently()) {
+            return applyPagination(pageable, contentQuery, countQuery);
+        }
+
+        JPAQuery<?> countResult = countQuery.apply(getQueryFactory());
+        Future<Long> count = countExecutor.submit(em -> countResult.clone(em).fetchCount());
+        try {
+            JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+            List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+            return PageableExecutionUtils.getPage(content, pageable, () -> countExecutor.join(count));
+        } finally {
+            count.cancel(true);
+        }
+    }
+
+    /**
+     * 쿼리 모양(name + shape)별로 한 번만 만들고 직렬화해 두는 템플릿
+     * 조건 값은 query 안에서 Param 으로 표현하고, 실행 시 params 로 바인딩한다.
+     * shape 는 어떤 조건이 쿼리에 포함됐는지를 나타내는 값 (예: 조건 유무 비트마스크)
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> QueryTemplate<T> queryTemplate(String name, int shape, Function<JPAQueryFactory, JPAQuery<T>> query) {
+        return (QueryTemplate<T>) queryTemplates.computeIfAbsent(name + ":" + shape,
+                key -> QueryTemplate.of(query.apply(getQueryFactory()), getEntityManager()));
+    }
+
+    /**
+     * 템플릿의 정렬을 그대로 사용하므로 pageable 의 sort 는 적용하지 않는다.
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable, QueryTemplate<T> template,
+                                          Map<ParamExpression<?>, Object> params) {
+        List<T> content = template.fetch(getEntityManager(), params, pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> template.fetchCount(getEntityManager(), params));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 같은 키로 동시에 들어온 조회를 한 번만 실행하고 결과를 나눠 준다. (single flight)
+ * 먼저 온 호출(leader)이 실행하는 동안 들어온 호출(follower)은 그 결과를 기다린다.
+ * 결과는 공유하지 않고 copier 로 복사해서 돌려주므로 호출한 쪽이 수정해도 서로 영향이 없다. (follower 가 없으면 복사하지 않는다)
+ * 읽기/쓰기 트랜잭션 안에서는 커밋되지 않은 변경이 결과에 섞이므로 합치지 않고 바로 실행한다.
+ * follower 는 followerTimeout 까지만 기다리고, 그 안에 끝나지 않으면 직접 실행한다.
+ * 기다리는 동안 커넥션을 잡고 있지 않도록 트랜잭션 경계 밖(앞)에서 호출해야 한다.
+ *
+ * metrics (name 태그)
+ * - repository.single-flight.requests (role = leader / follower / bypass / timeout)
+ * - repository.single-flight.coalescing.ratio: follower / (leader + follower)
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+    private final long followerTimeoutNanos;
+
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong followers = new AtomicLong();
+    private final AtomicLong bypassed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public SingleFlight(String name, UnaryOperator<V> copier, Duration followerTimeout, MeterRegistry meterRegistry) {
+        this.copier = copier;
+        this.followerTimeoutNanos = followerTimeout.toNanos();
+
+        FunctionCounter.builder("repository.single-flight.requests", leaders, AtomicLong::get)
+                .tags("name", name, "role", "leader").register(meterRegistry);
+        FunctionCounter.builder("repository.single-flight.requests", followers, AtomicLong::get)
+                .tags("name", name, "role", "follower").register(meterRegistry);
+        FunctionCounter.builder("repository.single-flight.requests", bypassed, AtomicLong::get)
+                .tags("name", name, "role", "bypass").register(meterRegistry);
+        FunctionCounter.builder("repository.single-flight.requests", timedOut, AtomicLong::get)
+                .tags("name", name, "role", "timeout").register(meterRegistry);
+        Gauge.builder("repository.single-flight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .tag("name", name).register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            bypassed.incrementAndGet();
+            return loader.get();
+        }
+
+        while (true) {
+            Flight<V> flight = new Flight<>();
+            Flight<V> inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight == null) {
+                return lead(key, flight, loader);
+            }
+            if (inFlight.follow()) {
+                followers.incrementAndGet();
+                try {
+                    return copier.apply(inFlight.await(followerTimeoutNanos));
+                } catch (TimeoutException e) {
+                    // leader 가 오래 걸리면 더 기다리지 않고 직접 실행한다
+                    timedOut.incrementAndGet();
+                    return loader.get();
+                }
+            }
+            // 막 끝난 실행이면 키가 이미 지워졌으므로 다시 시도
+        }
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> loader) {
+        leaders.incrementAndGet();
+        V result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.close();
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+
+        flights.remove(key, flight);
+        boolean shared = flight.close();
+        flight.result.complete(result);
+        // follower 들이 복사하는 원본을 호출한 쪽이 수정하지 않도록 leader 도 복사본을 받는다
+        return shared ? copier.apply(result) : result;
+    }
+
+    public double coalescingRatio() {
+        long coalesced = followers.get();
+        long total = leaders.get() + coalesced;
+        return total == 0 ? 0 : (double) coalesced / total;
+    }
+
+    public int inFlight() {
+        return flights.size();
+    }
+
+    private static class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private int followers;
+        private boolean closed;
+
+        synchronized boolean follow() {
+            if (closed) {
+                return false;
+            }
+            followers++;
+            return true;
+        }
+
+        /**
+         * @return follower 가 있었으면 true
+         */
+        synchronized boolean close() {
+            closed = true;
+            return followers > 0;
+        }
+
+        V await(long timeoutNanos) throws TimeoutException {
+            try {
+                return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for single flight", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+}
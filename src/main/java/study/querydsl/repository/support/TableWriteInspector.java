@@ -0,0 +1,96 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate 가 실행하는 SQL 을 보고 쓰기 대상 테이블을 {@link TableWriteListener} 에 알린다.
+ * 엔티티 flush 뿐 아니라 JPQL / Querydsl 벌크 update, delete 도 같은 경로로 지나간다.
+ *
+ * 트랜잭션 안이면 SQL 실행 시점에 한 번, 트랜잭션 종료(커밋/롤백) 후에 한 번 더 알린다.
+ * 커밋 전 다른 트랜잭션이 옛 값을 다시 캐싱하더라도 종료 시점에 다시 비워진다.
+ */
+public class TableWriteInspector implements StatementInspector {
+
+    private static final Pattern WRITE_STATEMENT = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)?(?:insert\\s+into|update|delete\\s+from)\\s+(\\w+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final ObjectProvider<TableWriteListener> listenerProvider;
+    private volatile List<TableWriteListener> listeners;
+
+    public TableWriteInspector(ObjectProvider<TableWriteListener> listenerProvider) {
+        this.listenerProvider = listenerProvider;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Matcher matcher = WRITE_STATEMENT.matcher(sql);
+        if (matcher.find()) {
+            String table = matcher.group(1).toLowerCase(Locale.ROOT);
+            fire(table);
+            fireAfterCompletion(table);
+        }
+        return sql;
+    }
+
+    /**
+     * 현재 트랜잭션에서 table 에 쓰기가 있었고 아직 끝나지 않았는지
+     * (다른 트랜잭션과 공유하는 캐시가 이 트랜잭션의 변경을 반영하지 못하는 구간)
+     */
+    @SuppressWarnings("unchecked")
+    public boolean hasPendingWrite(String table) {
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        return pending != null && pending.contains(table);
+    }
+
+    private void fire(String table) {
+        for (TableWriteListener listener : listeners()) {
+            if (listener.supports(table)) {
+                listener.onTableWrite(table);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fireAfterCompletion(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> tables = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableWriteInspector.this);
+                    tables.forEach(TableWriteInspector.this::fire);
+                }
+            });
+            pending = tables;
+        }
+        pending.add(table);
+    }
+
+    // EntityManagerFactory 생성 중에 리스너 빈을 당겨오지 않도록 첫 SQL 시점에 조회
+    private List<TableWriteListener> listeners() {
+        List<TableWriteListener> resolved = listeners;
+        if (resolved == null) {
+            resolved = listenerProvider.orderedStream().collect(Collectors.toList());
+            listeners = resolved;
+        }
+        return resolved;
+    }
+}
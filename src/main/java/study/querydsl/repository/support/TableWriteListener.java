@@ -0,0 +1,17 @@
+package study.querydsl.repository.support;
+
+/**
+ * 테이블에 insert / update / delete 가 발생했을 때 통지 받는 리스너
+ * 엔티티 변경과 Querydsl 벌크 연산 모두 SQL 기준으로 감지된다.
+ *
+ * @see TableWriteInspector
+ */
+public interface TableWriteListener {
+
+    /**
+     * @param table 소문자 테이블 이름 (member, team, ...)
+     */
+    boolean supports(String table);
+
+    void onTableWrite(String table);
+}
@@ -0,0 +1,101 @@
+package study.querydsl.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD 동시 처리 한도
+ * - 응답이 느리지 않고 한도의 절반 이상을 쓰고 있었으면 1/limit 씩 늘린다. (한도만큼 처리할 때마다 +1)
+ * - 느리거나 실패한 응답마다 backoffRatio 를 곱해 줄인다.
+ * 느린지는 고정 시간이 아니라 엔드포인트의 기준 지연(최근 최소 지연)과 비교한다.
+ * 기준 지연의 tolerance 배를 넘고 latencyFloor 보다 오래 걸리면 느린 응답이다. (원래 느린 엔드포인트도 자기 기준으로 판단)
+ * DB 가 느려지면 대기 중인 요청이 커넥션 풀에 쌓이기 전에 한도가 줄어든다.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    // 기준보다 느린 응답이 이어지면 요청 100건 정도에 걸쳐 새 기준으로 받아들인다 (데이터가 늘어 원래 느려진 경우)
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final double tolerance;
+    private final long latencyFloorNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // this 로 보호, 0 이면 아직 응답이 없다
+    private double baselineNanos;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, long latencyFloorNanos,
+                       double backoffRatio) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("minLimit must be between 1 and maxLimit");
+        }
+        if (tolerance <= 1) {
+            throw new IllegalArgumentException("tolerance must be greater than 1");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.latencyFloorNanos = latencyFloorNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return 한도 안이면 true, 이때는 반드시 {@link #release} 를 호출해야 한다
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            boolean slow = baselineNanos > 0
+                    && latencyNanos > latencyFloorNanos && latencyNanos > baselineNanos * tolerance;
+            if (!failed) {
+                updateBaseline(latencyNanos);
+            }
+
+            if (failed || slow) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlightBefore * 2 >= limit) {
+                // 한도를 충분히 쓰고 있을 때만 늘린다 (요청이 적어서 빠른 경우는 한도 여유를 보여주지 않는다)
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    // 더 빠른 응답이 오면 바로 낮추고, 느린 응답 쪽으로는 조금씩 올린다
+    private void updateBaseline(long latencyNanos) {
+        if (baselineNanos == 0 || latencyNanos < baselineNanos) {
+            baselineNanos = latencyNanos;
+        } else {
+            baselineNanos += (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized long getBaselineNanos() {
+        return (long) baselineNanos;
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 웹 계층에서 검사하는 잘못된 요청 파라미터 (export format, 자동완성 prefix / limit)
+ * 내부 오류의 IllegalArgumentException 과 구분해 이 예외만 400 으로 응답한다.
+ * 아래 계층의 검색 파라미터 오류는 {@link study.querydsl.dto.InvalidSearchParameterException}
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends IllegalArgumentException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
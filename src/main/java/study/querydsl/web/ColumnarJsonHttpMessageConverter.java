@@ -0,0 +1,162 @@
+package study.querydsl.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 회원 검색 결과(List / Page / Slice of MemberTeamDto)를 컬럼 단위 JSON 으로 쓴다.
+ * Accept: application/vnd.querydsl.columnar 일 때만 선택된다.
+ * (+json 접미사를 붙이면 application/*+json 을 지원하는 Jackson 컨버터가 먼저 가져가므로 붙이지 않는다)
+ *
+ * <pre>
+ * {"size":2,
+ *  "memberId":[1,2], "username":["member1","member2"], "age":[10,20], "teamId":[1,null],
+ *  "teamNames":["teamA"], "teamName":[0,-1],
+ *  "page":{"number":0,"size":20,"totalElements":2,"totalPages":1}}
+ * </pre>
+ * 필드 이름은 row 마다가 아니라 한 번만 나오고, 팀 이름은 사전 코드로 쓴다. 응답 스트림에 바로 쓴다.
+ */
+public class ColumnarJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType COLUMNAR_JSON = MediaType.valueOf("application/vnd.querydsl.columnar");
+
+    private final ObjectMapper objectMapper;
+
+    public ColumnarJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(COLUMNAR_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) || Slice.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolvable = ResolvableType.forType(type != null ? type : clazz);
+        Class<?> element = List.class.isAssignableFrom(resolvable.toClass())
+                ? resolvable.as(List.class).resolveGeneric(0)
+                : resolvable.as(Slice.class).resolveGeneric(0);
+        return element != null && MemberTeamDto.class.isAssignableFrom(element);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        writeTo(body, outputMessage.getBody());
+    }
+
+    public void writeTo(Object body, OutputStream out) throws IOException {
+        List<?> content = body instanceof Slice ? ((Slice<?>) body).getContent() : (List<?>) body;
+        MemberTeamColumns.Builder builder = MemberTeamColumns.builder();
+        for (Object row : content) {
+            MemberTeamDto dto = (MemberTeamDto) row;
+            builder.add(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName());
+        }
+        MemberTeamColumns columns = builder.build();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeNumberField("size", columns.size());
+
+            generator.writeArrayFieldStart("memberId");
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeNumber(columns.memberIdAt(i));
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("username");
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeString(columns.usernameAt(i));
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("age");
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeNumber(columns.ageAt(i));
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("teamId");
+            for (int i = 0; i < columns.size(); i++) {
+                long teamId = columns.teamIdAt(i);
+                if (teamId == MemberTeamColumns.NO_TEAM) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(teamId);
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("teamNames");
+            for (int code = 0; code < columns.teamNameCount(); code++) {
+                generator.writeString(columns.teamNameOf(code));
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("teamName");
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeNumber(columns.teamNameCodeAt(i));
+            }
+            generator.writeEndArray();
+
+            if (body instanceof Slice) {
+                writePage(generator, (Slice<?>) body);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writePage(JsonGenerator generator, Slice<?> slice) throws IOException {
+        generator.writeObjectFieldStart("page");
+        generator.writeNumberField("number", slice.getNumber());
+        generator.writeNumberField("size", slice.getSize());
+        if (slice instanceof Page) {
+            generator.writeNumberField("totalElements", ((Page<?>) slice).getTotalElements());
+            generator.writeNumberField("totalPages", ((Page<?>) slice).getTotalPages());
+        } else {
+            generator.writeBooleanField("hasNext", slice.hasNext());
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is write-only", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is write-only", inputMessage);
+    }
+}
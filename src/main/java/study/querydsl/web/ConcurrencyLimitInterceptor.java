@@ -0,0 +1,150 @@
+package study.querydsl.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ConcurrencyLimited} 엔드포인트마다 {@link AimdLimiter} 로 동시 처리 수를 제한한다.
+ * 지연은 요청 처리 시간(대부분 쿼리 시간)으로 재서 엔드포인트별 기준 지연과 비교하고, 5xx / 예외는 실패로 본다.
+ * 거절된 요청은 커넥션을 잡지 않고 바로 503 + Retry-After 로 끝난다.
+ *
+ * metrics (endpoint = 컨트롤러.메서드)
+ * - http.concurrency.limit: 현재 한도
+ * - http.concurrency.in-flight: 처리 중인 요청 수
+ * - http.concurrency.baseline: 기준 지연
+ * - http.concurrency.rejected: 거절한 요청 수
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final Duration latencyFloor;
+    private final double backoffRatio;
+    private final String retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimitInterceptor(@Value("${concurrency-limit.enabled:true}") boolean enabled,
+                                       @Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+                                       @Value("${concurrency-limit.min-limit:1}") int minLimit,
+                                       @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+                                       @Value("${concurrency-limit.latency-tolerance:2.0}") double latencyTolerance,
+                                       @Value("${concurrency-limit.latency-floor:50ms}") Duration latencyFloor,
+                                       @Value("${concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+                                       @Value("${concurrency-limit.retry-after:1s}") Duration retryAfter,
+                                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.latencyFloor = latencyFloor;
+        this.backoffRatio = backoffRatio;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.getSeconds()));
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !isLimited(handler)) {
+            return true;
+        }
+
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        Endpoint endpoint = endpoints.computeIfAbsent(handlerMethod.getMethod(), method -> newEndpoint(handlerMethod));
+        if (!endpoint.limiter.tryAcquire()) {
+            endpoint.rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            throw new ConcurrencyLimitExceededException(endpoint.name, endpoint.limiter.getLimit());
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(endpoint.limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit == null) {
+            return;
+        }
+        // 오류 페이지 디스패치에서 다시 반납하지 않도록 지운다
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        permit.limiter.release(System.nanoTime() - permit.start, ex != null || response.getStatus() >= 500);
+    }
+
+    // 메서드의 설정이 클래스보다 우선한다 (@ConcurrencyLimited(false) 로 제외)
+    private static boolean isLimited(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return false;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        ConcurrencyLimited limited = handlerMethod.getMethodAnnotation(ConcurrencyLimited.class);
+        if (limited == null) {
+            limited = handlerMethod.getBeanType().getAnnotation(ConcurrencyLimited.class);
+        }
+        return limited != null && limited.value();
+    }
+
+    private Endpoint newEndpoint(HandlerMethod handlerMethod) {
+        String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        AimdLimiter limiter = new AimdLimiter(initialLimit, minLimit, maxLimit, latencyTolerance, latencyFloor.toNanos(),
+                backoffRatio);
+
+        Gauge.builder("http.concurrency.limit", limiter, AimdLimiter::getLimit)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.in-flight", limiter, AimdLimiter::getInFlight)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.baseline", limiter, AimdLimiter::getBaselineNanos)
+                .tag("endpoint", name)
+                .baseUnit("nanoseconds")
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("http.concurrency.rejected")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        return new Endpoint(name, limiter, rejected);
+    }
+
+    private static class Endpoint {
+        private final String name;
+        private final AimdLimiter limiter;
+        private final Counter rejected;
+
+        private Endpoint(String name, AimdLimiter limiter, Counter rejected) {
+            this.name = name;
+            this.limiter = limiter;
+            this.rejected = rejected;
+        }
+    }
+
+    private static class Permit {
+        private final AimdLimiter limiter;
+        private final long start;
+
+        private Permit(AimdLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+    }
+}
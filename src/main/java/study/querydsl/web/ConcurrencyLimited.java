@@ -0,0 +1,23 @@
+package study.querydsl.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 엔드포인트(컨트롤러 메서드)별 동시 처리 수를 응답 지연에 맞춰 조절한다. 클래스에 붙이면 모든 핸들러 메서드에 적용
+ * 한도를 넘는 요청은 기다리지 않고 바로 503 + Retry-After 로 거절한다.
+ * 메서드에 붙인 설정이 클래스보다 우선하므로 @ConcurrencyLimited(false) 로 일부 메서드를 뺄 수 있다.
+ *
+ * @see ConcurrencyLimitInterceptor
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+
+    /**
+     * false 면 클래스에 붙은 제한에서 제외
+     */
+    boolean value() default true;
+}
@@ -0,0 +1,21 @@
+package study.querydsl.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메서드 한 번 호출에 허용하는 최대 SQL 문 수
+ * 넘으면 경고 로그, query-budget.fail=true 면 응답을 실패시킨다.
+ * 요청을 위해 다른 스레드에서 실행한 SQL 은 포함하고, 캐시/사전 적재 SQL 은 세지 않는다.
+ * 응답에 직접 쓰는 (void) 핸들러는 핸들러가 끝난 뒤 검사하므로, 이미 커밋된 스트리밍 응답은 실패시키지 못하고 로그만 남긴다.
+ *
+ * @see QueryBudgetInterceptor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
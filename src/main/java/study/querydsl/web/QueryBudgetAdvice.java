@@ -0,0 +1,50 @@
+package study.querydsl.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import study.querydsl.metrics.StatementCounter;
+
+/**
+ * query-budget.fail=true 일 때 응답 바디를 쓰기 전에 예산을 넘었으면 요청을 실패시킨다.
+ */
+@ControllerAdvice
+public class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean fail;
+
+    public QueryBudgetAdvice(@Value("${query-budget.fail:false}") boolean fail) {
+        this.fail = fail;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return fail && returnType.hasMethodAnnotation(QueryBudget.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+
+        StatementCounter.Scope scope = (StatementCounter.Scope) ((ServletServerHttpRequest) request).getServletRequest()
+                .getAttribute(QueryBudgetInterceptor.SCOPE_ATTRIBUTE);
+        QueryBudget budget = returnType.getMethodAnnotation(QueryBudget.class);
+        if (scope != null && budget != null) {
+            long statements = scope.statements();
+            if (statements > budget.value()) {
+                throw new QueryBudgetExceededException(returnType.getExecutable().getName(), statements, budget.value());
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,12 @@
+package study.querydsl.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String handler, long statements, int budget) {
+        super(handler + " issued " + statements + " SQL statements (budget " + budget + ")");
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import study.querydsl.metrics.StatementCounter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청마다 실행된 SQL 문 수를 세서 {@link QueryBudget} 과 비교한다.
+ * 요청마다 새 카운터를 걸어 두므로 다른 스레드에서 요청을 위해 실행한 SQL(동시 count 쿼리)도 포함된다.
+ * 응답 직렬화 중 지연 로딩으로 나간 쿼리까지 포함해 요청이 끝난 뒤 로그를 남긴다.
+ * 실패 처리는 응답 바디를 쓰기 전에 {@link QueryBudgetAdvice} 가, 바디 없이 응답에 직접 쓰는 (void) 핸들러는 여기서 한다.
+ */
+@Slf4j
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    static final String SCOPE_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".scope";
+
+    private final boolean fail;
+
+    public QueryBudgetInterceptor(@Value("${query-budget.fail:false}") boolean fail) {
+        this.fail = fail;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (budgetOf(handler) != null) {
+            request.setAttribute(SCOPE_ATTRIBUTE, StatementCounter.begin());
+        }
+        return true;
+    }
+
+    /**
+     * void 핸들러는 응답을 직접 쓰므로 핸들러가 끝난 뒤 검사한다.
+     * 이미 응답이 커밋됐으면 (스트리밍 중 버퍼를 넘긴 경우) 상태 코드를 바꿀 수 없어 로그만 남긴다.
+     */
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        QueryBudget budget = budgetOf(handler);
+        StatementCounter.Scope scope = (StatementCounter.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (!fail || budget == null || scope == null || !((HandlerMethod) handler).isVoid()) {
+            return;
+        }
+
+        long statements = scope.statements();
+        if (statements > budget.value() && !response.isCommitted()) {
+            throw new QueryBudgetExceededException(((HandlerMethod) handler).getMethod().getName(), statements, budget.value());
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryBudget budget = budgetOf(handler);
+        StatementCounter.Scope scope = (StatementCounter.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (budget == null || scope == null) {
+            return;
+        }
+        StatementCounter.end(scope);
+
+        long statements = scope.statements();
+        if (statements > budget.value()) {
+            log.warn("Query budget exceeded: {} {} issued {} SQL statements (budget {})",
+                    request.getMethod(), request.getRequestURI(), statements, budget.value());
+        } else {
+            log.debug("{} {} issued {} SQL statements (budget {})",
+                    request.getMethod(), request.getRequestURI(), statements, budget.value());
+        }
+    }
+
+    static QueryBudget budgetOf(Object handler) {
+        return handler instanceof HandlerMethod ? ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class) : null;
+    }
+}
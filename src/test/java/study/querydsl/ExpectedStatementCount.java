@@ -0,0 +1,18 @@
+package study.querydsl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메서드 본문(@BeforeEach 제외)에서 실행되어야 하는 정확한 SQL 문 수
+ *
+ * @see StatementCountExtension
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExpectedStatementCount {
+
+    int value();
+}
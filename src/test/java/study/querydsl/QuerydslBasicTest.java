@@ -19,6 +19,7 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.projection.FastProjections;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -448,6 +449,54 @@ public class QuerydslBasicTest {
         fetch1.forEach(System.out::println);
     }
 
+    @Test
+    public void findDtoByFastProjections() {
+        List<MemberDto> beans = queryFactory
+                .select(FastProjections.bean(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        List<MemberDto> constructed = queryFactory
+                .select(FastProjections.constructor(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        List<MemberDto> expected = queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertEquals(expected, beans);
+        assertEquals(expected, constructed);
+    }
+
+    @Test
+    public void findUserDtoByFastProjections() {
+        QMember memberSub = new QMember("memberSub");
+
+        // 별칭(as)과 서브쿼리 별칭(ExpressionUtils.as)으로 프로퍼티를 찾는다
+        List<UserDto> fetch = queryFactory
+                .select(FastProjections.bean(UserDto.class,
+                        member.username.as("name"),
+                        ExpressionUtils.as(JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub), "age")
+                ))
+                .from(member)
+                .fetch();
+
+        assertEquals(4, fetch.size());
+        fetch.forEach(userDto -> assertEquals(40, userDto.getAge()));
+        assertTrue(fetch.stream().anyMatch(userDto -> userDto.getName().equals("member1")));
+    }
+
     @Test
     public void findDtoByQueryProjections() {
         List<MemberDto> fetch = queryFactory
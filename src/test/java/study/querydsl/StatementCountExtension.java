@@ -0,0 +1,34 @@
+package study.querydsl;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import study.querydsl.metrics.StatementCounter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link ExpectedStatementCount} 가 붙은 테스트의 실행 SQL 문 수를 검증한다. (N+1 회귀 방지)
+ */
+public class StatementCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementCountExtension.class);
+    private static final String START = "start";
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(START, StatementCounter.current());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        ExpectedStatementCount expected = context.getRequiredTestMethod().getAnnotation(ExpectedStatementCount.class);
+        Long start = context.getStore(NAMESPACE).remove(START, Long.class);
+        if (expected == null || start == null) {
+            return;
+        }
+
+        assertEquals(expected.value(), StatementCounter.current() - start,
+                context.getDisplayName() + " SQL statement count");
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MemberExportFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void ndjson() throws IOException {
+        String body = export(MemberExportFormat.NDJSON, List.of(
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "member2", 20, null, null)));
+
+        // 행마다 줄바꿈 하나, 빈 줄 없음
+        assertEquals("{\"memberId\":1,\"username\":\"member1\",\"age\":10,\"teamId\":1,\"teamName\":\"teamA\"}\n"
+                + "{\"memberId\":2,\"username\":\"member2\",\"age\":20,\"teamId\":null,\"teamName\":null}\n", body);
+    }
+
+    @Test
+    public void emptyNdjson() throws IOException {
+        assertEquals("", export(MemberExportFormat.NDJSON, List.of()));
+    }
+
+    private String export(MemberExportFormat format, List<MemberTeamDto> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemberExportFormat.RowWriter writer = format.open(out, objectMapper)) {
+            rows.forEach(writer::write);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
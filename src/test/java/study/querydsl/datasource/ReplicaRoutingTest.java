@@ -0,0 +1,87 @@
+package study.querydsl.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로컬 replica 는 기동 시점 primary 의 복사본이므로, 이후 커밋한 회원은 refresh 전까지 replica 조회에 보이지 않는다.
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "replica"})
+class ReplicaRoutingTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    LocalReplicaSnapshot replicaSnapshot;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username like 'replica%'").executeUpdate());
+        replicaSnapshot.refresh();
+    }
+
+    @Test
+    public void readOnlySearchUsesReplica() {
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("replicaMember", 10)));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("replicaMember");
+
+        // 읽기 전용 리포지토리 호출은 replica
+        assertTrue(memberRepository.search(condition).isEmpty());
+        assertTrue(memberJpaRepository.search(condition).isEmpty());
+
+        // 읽기/쓰기 트랜잭션 안에서는 자기 쓰기를 읽도록 primary
+        List<MemberTeamDto> result = transactionTemplate.execute(status -> {
+            em.persist(new Member("replicaMember", 20));
+            return memberRepository.search(condition);
+        });
+        assertEquals(2, result.size());
+
+        replicaSnapshot.refresh();
+        assertEquals(2, memberRepository.search(condition).size());
+
+        assertTrue(meterRegistry.get("datasource.route").tag("target", "replica").counter().count() > 0);
+        assertTrue(meterRegistry.get("datasource.route").tag("target", "primary").counter().count() > 0);
+    }
+
+    @Test
+    public void replicaReadOutsideTransaction() {
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("replicaMember", 10)));
+
+        assertEquals(1, memberJpaRepository.findByUsername("replicaMember").size());
+        assertTrue(DataSourceRouting.call(DataSourceRoute.REPLICA,
+                () -> memberJpaRepository.findByUsername("replicaMember")).isEmpty());
+    }
+}
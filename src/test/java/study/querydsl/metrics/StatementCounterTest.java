@@ -0,0 +1,52 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementCounterTest {
+
+    @Test
+    public void countsOtherThreadIntoRequestScope() {
+        StatementCounter.Scope scope = StatementCounter.begin();
+        StatementCounter.increment();
+
+        // 요청을 위해 다른 스레드에서 실행한 SQL 도 요청 카운터에 센다
+        CompletableFuture.runAsync(() -> StatementCounter.call(scope, () -> {
+            StatementCounter.increment();
+            return null;
+        })).join();
+
+        assertEquals(2, scope.statements());
+        assertEquals(2, StatementCounter.current());
+        StatementCounter.end(scope);
+    }
+
+    @Test
+    public void uncounted() {
+        StatementCounter.Scope scope = StatementCounter.begin();
+
+        StatementCounter.uncounted(() -> {
+            StatementCounter.increment();
+            return null;
+        });
+        StatementCounter.increment();
+
+        assertEquals(1, scope.statements());
+        StatementCounter.end(scope);
+    }
+
+    @Test
+    public void nestedScope() {
+        long outerStart = StatementCounter.current();
+        StatementCounter.Scope request = StatementCounter.begin();
+        StatementCounter.increment();
+        StatementCounter.end(request);
+
+        // 요청 카운터를 닫으면 바깥 카운터로 돌아가고, 요청 안에서 센 문장도 바깥에 포함된다
+        assertEquals(1, request.statements());
+        assertEquals(outerStart + 1, StatementCounter.current());
+    }
+}
@@ -0,0 +1,109 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.ConcurrentCountExecutor;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * count 쿼리는 별도 EntityManager 에서 실행되어 커밋된 데이터만 보므로 트랜잭션을 직접 커밋하고 정리한다.
+ */
+@SpringBootTest(properties = "paging.concurrent-count.enabled=true")
+class ConcurrentCountTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    ConcurrentCountExecutor countExecutor;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("concurrentCountTeam");
+            em.persist(team);
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("concurrentCount" + i, 20 + i, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'concurrentCount%'").executeUpdate();
+            em.createQuery("delete from Team t where t.teamName = 'concurrentCountTeam'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchPageDto() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("concurrentCountTeam");
+        PageRequest of = PageRequest.of(1, 2, Sort.by("username"));
+
+        // 트랜잭션 밖 (리포지토리의 읽기 전용 트랜잭션)에서는 count 를 실행기에서 동시에 실행
+        assertTrue(countExecutor.canRunConcurrently());
+        Page<MemberTeamDto> concurrent = memberTestRepository.searchPageDto(condition, of);
+
+        // 읽기-쓰기 트랜잭션 안에서는 순차 실행
+        Page<MemberTeamDto> sequential = transactionTemplate.execute(status -> {
+            assertFalse(countExecutor.canRunConcurrently());
+            return memberTestRepository.searchPageDto(condition, of);
+        });
+
+        assertEquals(5, concurrent.getTotalElements());
+        assertEquals(sequential, concurrent);
+    }
+
+    @Test
+    public void countMetrics() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("concurrentCountTeam");
+        long queries = countTimerCount("querydsl.query");
+        long statements = countTimerCount("jdbc.statement");
+
+        Page<MemberTeamDto> result = memberTestRepository.searchPageDto(condition, PageRequest.of(1, 2));
+
+        // 다른 스레드에서 실행한 count 도 호출한 리포지토리 메서드로 기록한다
+        assertEquals(5, result.getTotalElements());
+        assertEquals(queries + 1, countTimerCount("querydsl.query"));
+        assertEquals(statements + 1, countTimerCount("jdbc.statement"));
+    }
+
+    private long countTimerCount(String name) {
+        return meterRegistry.find(name)
+                .tag("method", "MemberTestRepository.searchPageDto")
+                .tag("operation", "count")
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
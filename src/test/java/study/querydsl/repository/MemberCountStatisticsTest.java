@@ -0,0 +1,129 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.ApproximatePage;
+import study.querydsl.dto.CountEstimate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 통계는 커밋 이후에 반영되므로 트랜잭션을 직접 커밋하고 정리한다.
+ */
+@SpringBootTest
+class MemberCountStatisticsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberCountStatistics countStatistics;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamStatistics teamStatistics;
+
+    @Autowired
+    UsernameIndex usernameIndex;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void before() {
+        // 다른 테스트의 JPQL 벌크 쓰기는 이벤트가 없으므로 커밋된 데이터로 시작
+        teamStatistics.invalidate();
+        usernameIndex.invalidate();
+        // statisticsTeam 에 나이 0 ~ 19 회원 20명
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("statisticsTeam");
+            em.persist(team);
+            for (int age = 0; age < 20; age++) {
+                em.persist(new Member("statistics" + age, age, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("statistics")).execute();
+            queryFactory.delete(team).where(team.teamName.eq("statisticsTeam")).execute();
+        });
+    }
+
+    @Test
+    public void estimate() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("statisticsTeam");
+        condition.setAgeGoe(5);
+
+        // 팀 / 나이 조건은 나이별 회원 수로 정확히 센다
+        CountEstimate estimate = countStatistics.estimate(condition);
+        assertEquals(15, estimate.getEstimate());
+        assertEquals(15, estimate.getLowerBound());
+        assertEquals(15, estimate.getUpperBound());
+        assertFalse(estimate.isExact());
+
+        // 커밋된 변경은 다음 추정에 바로 반영된다
+        transactionTemplate.executeWithoutResult(status -> em.persist(
+                new Member("statistics20", 20, em.find(Team.class, teamIdOf("statisticsTeam")))));
+        assertEquals(16, countStatistics.estimate(condition).getEstimate());
+    }
+
+    @Test
+    public void estimateUsername() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("statisticsTeam");
+        condition.setAgeGoe(5);
+        condition.setUsername("statistics7");
+
+        // 같은 username 회원이 1명이므로 상한은 1
+        CountEstimate estimate = countStatistics.estimate(condition);
+        assertEquals(1, estimate.getUpperBound());
+        assertTrue(estimate.getLowerBound() <= estimate.getEstimate());
+        assertTrue(estimate.getEstimate() <= estimate.getUpperBound());
+
+        condition.setUsername("statisticsMissing");
+        assertEquals(0, countStatistics.estimate(condition).getUpperBound());
+    }
+
+    private Long teamIdOf(String teamName) {
+        return queryFactory.select(team.id).from(team).where(team.teamName.eq(teamName)).fetchOne();
+    }
+
+    @Test
+    public void searchApproximate() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("statisticsTeam");
+
+        ApproximatePage<MemberTeamDto> approximate = memberRepository.searchApproximate(condition, PageRequest.of(0, 5), false);
+        assertEquals(20, approximate.getTotalElements());
+        assertFalse(approximate.isExact());
+
+        ApproximatePage<MemberTeamDto> exact = memberRepository.searchApproximate(condition, PageRequest.of(0, 5), true);
+        assertEquals(20, exact.getTotalElements());
+        assertTrue(exact.isExact());
+    }
+}
@@ -6,13 +6,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.querydsl.TestHelper;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -99,4 +106,34 @@ class MemberJpaRepositoryTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void searchStream() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        List<MemberTeamDto> streamed = new ArrayList<>();
+        memberJpaRepository.searchStream(condition, 1, streamed::add);
+
+        assertEquals(memberJpaRepository.search(condition), streamed);
+    }
+
+    @Test
+    public void searchColumns() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        MemberTeamColumns columns = memberJpaRepository.searchColumns(condition, 100);
+        // 두 쿼리 모두 정렬하지 않으므로 회원 id 로 맞춰 비교
+        Map<Long, MemberTeamDto> expected = memberJpaRepository.search(condition).stream()
+                .collect(Collectors.toMap(MemberTeamDto::getMemberId, Function.identity()));
+
+        assertEquals(expected.size(), columns.size());
+        assertEquals(2, columns.teamNameCount());
+
+        Set<Long> seen = new HashSet<>();
+        MemberTeamColumns.Row row = columns.row();
+        while (row.next()) {
+            assertTrue(seen.add(row.getMemberId()));
+            assertEquals(expected.get(row.getMemberId()), columns.toDto(row.getIndex()));
+        }
+    }
+}
@@ -1,27 +1,48 @@
 package study.querydsl.repository;
 
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.querydsl.ExpectedStatementCount;
+import study.querydsl.StatementCountExtension;
 import study.querydsl.TestHelper;
+import study.querydsl.dto.InvalidSearchParameterException;
+import study.querydsl.dto.KeysetPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.ConcurrentCountExecutor;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static study.querydsl.entity.QMember.member;
 
 @SpringBootTest
 @Transactional
+@ExtendWith(StatementCountExtension.class)
 class MemberRepositoryTest {
 
     @Autowired
@@ -33,6 +54,15 @@ class MemberRepositoryTest {
     @Autowired
     TestHelper testHelper;
 
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ConcurrentCountExecutor countExecutor;
+
     @BeforeEach
     public void before() {
         testHelper.beforeSet();
@@ -54,6 +84,7 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @ExpectedStatementCount(2)
     public void search() {
         MemberSearchCondition condition = new MemberSearchCondition();
         condition.setTeamName("teamB");
@@ -71,6 +102,18 @@ class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void queryMetrics() {
+        memberRepository.search(new MemberSearchCondition());
+
+        Timer timer = meterRegistry.find("querydsl.query")
+                .tag("method", "MemberRepositoryImpl.search")
+                .tag("operation", "fetch")
+                .timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() > 0);
+    }
+
     @Test
     public void searchPageSimple() {
         MemberSearchCondition condition = new MemberSearchCondition();
@@ -107,6 +150,129 @@ class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void searchComplexCountCache() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest of = PageRequest.of(0, 3);
+
+        long hits = countCache.getHits();
+        long misses = countCache.getMisses();
+
+        memberRepository.searchComplex(condition, of);
+        memberRepository.searchComplex(condition, of);
+        assertEquals(misses + 1, countCache.getMisses());
+        assertEquals(hits + 1, countCache.getHits());
+
+        // 쓰기가 발생하면 캐시가 비워지고 다시 count 쿼리를 실행한다
+        em.persist(new Member("member5", 50));
+        em.flush();
+
+        Page<MemberTeamDto> result = memberRepository.searchComplex(condition, of);
+        assertEquals(5, result.getTotalElements());
+        assertEquals(misses + 2, countCache.getMisses());
+    }
+
+    @Test
+    @ExpectedStatementCount(3)
+    public void searchComplexStatementCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest of = PageRequest.of(0, 3);
+
+        // 첫 호출: content + count, 두 번째 호출: content (count 캐시 적중)
+        memberRepository.searchComplex(condition, of);
+        memberRepository.searchComplex(condition, of);
+    }
+
+    @Test
+    public void concurrentCount() {
+        // 테스트 설정은 paging.concurrent-count.enabled=false (동시 실행 경로는 ConcurrentCountTest)
+        assertFalse(countExecutor.canRunConcurrently());
+
+        // 별도 EntityManager 에서 실행되므로 커밋되지 않은 테스트 데이터는 보이지 않는다
+        JPAQuery<Member> countQuery = new JPAQueryFactory(em).selectFrom(member);
+        long count = countExecutor.join(countExecutor.submit(other -> countQuery.clone(other).fetchCount()));
+        assertEquals(0, count);
+        assertEquals(4, countQuery.fetchCount());
+    }
+
+    @Test
+    public void searchFields() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+
+        List<Map<String, Object>> rows = memberRepository.searchFields(condition, MemberTeamField.parse("username,memberId"));
+        assertEquals(1, rows.size());
+        assertEquals(List.of("memberId", "username"), new ArrayList<>(rows.get(0).keySet()));
+        assertEquals("member4", rows.get(0).get("username"));
+
+        Page<Map<String, Object>> page = memberRepository.searchPageFields(condition, MemberTeamField.parse("teamName"), PageRequest.of(0, 3));
+        assertEquals("teamB", page.getContent().get(0).get("teamName"));
+        assertEquals(1, page.getTotalElements());
+
+        Page<Map<String, Object>> simple = memberRepository.searchPageFieldsSimple(condition, MemberTeamField.parse("age"), PageRequest.of(0, 3));
+        assertEquals(List.of(Map.of("age", 40)), simple.getContent());
+        assertThrows(InvalidSearchParameterException.class, () -> MemberTeamField.parse("password"));
+    }
+
+    @Test
+    @ExpectedStatementCount(2)
+    public void searchSlice() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // count 쿼리 없이 content 쿼리만 실행
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3));
+        assertEquals(3, first.getNumberOfElements());
+        assertTrue(first.hasNext());
+
+        Slice<MemberTeamDto> second = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+        assertEquals(1, second.getNumberOfElements());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    public void searchKeyset() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest of = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        KeysetPage<MemberTeamDto> first = memberRepository.searchKeyset(condition, null, of);
+        assertEquals(3, first.getContent().size());
+        assertEquals("member4", first.getContent().get(0).getUsername());
+        assertTrue(first.isHasNext());
+
+        KeysetPage<MemberTeamDto> second = memberRepository.searchKeyset(condition, first.getNextCursor(), of);
+        assertEquals(1, second.getContent().size());
+        assertEquals("member1", second.getContent().get(0).getUsername());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void searchKeysetNullUsername() {
+        em.persist(new Member(null, 50));
+        em.persist(new Member(null, 60));
+        em.flush();
+        em.clear();
+
+        // 페이지 경계에 username 이 null 인 회원이 와도 다음 페이지로 넘어간다 (오름차순은 null 이 맨 앞)
+        List<String> ascending = usernamesByKeyset(Sort.Direction.ASC);
+        assertEquals(Arrays.asList(null, null, "member1", "member2", "member3", "member4"), ascending);
+
+        List<String> descending = usernamesByKeyset(Sort.Direction.DESC);
+        assertEquals(Arrays.asList("member4", "member3", "member2", "member1", null, null), descending);
+    }
+
+    private List<String> usernamesByKeyset(Sort.Direction direction) {
+        PageRequest of = PageRequest.of(0, 1, Sort.by(direction, "username"));
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<MemberTeamDto> page = memberRepository.searchKeyset(new MemberSearchCondition(), cursor, of);
+            page.getContent().forEach(dto -> usernames.add(dto.getUsername()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return usernames;
+    }
+
     @Test
     public void querydslPredicateExecutorTest() {
         Iterable<Member> member4 = memberRepository.findAll(member.age.between(20, 40).and(member.username.eq("member4")));
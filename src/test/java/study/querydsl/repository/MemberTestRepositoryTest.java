@@ -0,0 +1,124 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.querydsl.TestHelper;
+import study.querydsl.dto.InvalidSearchParameterException;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    TestHelper testHelper;
+
+    @BeforeEach
+    public void before() {
+        testHelper.beforeSet();
+    }
+
+    @Test
+    public void searchPageByTemplate() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(31);
+
+        PageRequest of = PageRequest.of(0, 3);
+
+        Page<MemberTeamDto> dynamic = memberTestRepository.searchPageDto(condition, of);
+        Page<MemberTeamDto> template = memberTestRepository.searchPageByTemplate(condition, of);
+
+        assertEquals(1, template.getTotalElements());
+        assertEquals(dynamic.getContent(), template.getContent());
+
+        // 같은 모양, 다른 값이면 캐시된 템플릿에 값만 바꿔 바인딩
+        condition.setAgeGoe(20);
+        assertEquals(2, memberTestRepository.searchPageByTemplate(condition, of).getTotalElements());
+    }
+
+    @Test
+    public void searchPageByTemplateOffsetOverflow() {
+        // offset = 1,000,000,000 * 3 > Integer.MAX_VALUE
+        PageRequest of = PageRequest.of(1_000_000_000, 3);
+
+        assertThrows(InvalidSearchParameterException.class,
+                () -> memberTestRepository.searchPageByTemplate(new MemberSearchCondition(), of));
+    }
+
+    @Test
+    public void searchPageDto() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        // 첫 페이지가 다 차서 count 쿼리가 실행되는 페이지
+        Page<MemberTeamDto> first = memberTestRepository.searchPageDto(condition, PageRequest.of(0, 1));
+        assertEquals(2, first.getTotalElements());
+        assertEquals(1, first.getNumberOfElements());
+
+        Page<MemberTeamDto> all = memberTestRepository.searchPageDto(new MemberSearchCondition(), PageRequest.of(1, 2));
+        assertEquals(4, all.getTotalElements());
+        assertEquals(2, all.getNumberOfElements());
+    }
+
+    @Test
+    public void searchPageDeferred() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest of = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age"));
+
+        Page<MemberTeamDto> deferred = memberTestRepository.searchPageDeferred(condition, of);
+
+        // id 페이지의 순서(나이 내림차순)를 그대로 유지
+        assertEquals(4, deferred.getTotalElements());
+        assertEquals(List.of("member2", "member1"),
+                deferred.getContent().stream().map(MemberTeamDto::getUsername).collect(Collectors.toList()));
+        assertEquals("teamA", deferred.getContent().get(0).getTeamName());
+    }
+
+    @Test
+    public void searchSliceDto() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Slice<MemberTeamDto> slice = memberTestRepository.searchSliceDto(condition, PageRequest.of(0, 4));
+        assertEquals(4, slice.getNumberOfElements());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    public void readOnlySelect() {
+        List<Member> members = memberTestRepository.basicSelect();
+        assertEquals(4, members.size());
+
+        // read-only 로 읽은 엔티티는 변경 감지 대상이 아니다
+        members.get(0).setUsername("changed");
+        em.flush();
+        em.clear();
+
+        assertEquals(0, memberTestRepository.basicSelect().stream()
+                .filter(member -> member.getUsername().equals("changed"))
+                .count());
+    }
+}
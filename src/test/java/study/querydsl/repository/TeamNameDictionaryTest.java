@@ -0,0 +1,85 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.TableWriteInspector;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 사전은 커밋된 데이터만 보므로 트랜잭션을 직접 커밋하고 정리한다.
+ */
+@SpringBootTest
+class TeamNameDictionaryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TableWriteInspector tableWriteInspector;
+
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Team t where t.teamName like 'dictionaryTeam%'").executeUpdate());
+    }
+
+    @Test
+    public void idsOf() {
+        // 사전에 없는 이름은 조인으로 거른다
+        assertNull(teamNameDictionary.idsOf("dictionaryTeam"));
+        assertTrue(teamNameDictionary.conditionOf("dictionaryTeam").needsTeamJoin());
+
+        Team team = new Team("dictionaryTeam");
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(team);
+            em.flush();
+            // 이 트랜잭션에서 team 을 변경했으므로 사전을 쓰지 않는다
+            assertNull(teamNameDictionary.idsOf("dictionaryTeam"));
+        });
+
+        // 커밋 후 다시 읽는다
+        assertEquals(List.of(team.getId()), teamNameDictionary.idsOf("dictionaryTeam"));
+        assertFalse(teamNameDictionary.conditionOf("dictionaryTeam").needsTeamJoin());
+    }
+
+    @Test
+    public void reloadAfterTtl() {
+        Team team = new Team("dictionaryTeam");
+        transactionTemplate.executeWithoutResult(status -> em.persist(team));
+
+        TeamNameDictionary dictionary = new TeamNameDictionary(entityManagerFactory, tableWriteInspector, Duration.ZERO);
+        assertEquals(List.of(team.getId()), dictionary.idsOf("dictionaryTeam"));
+
+        // 다른 인스턴스나 직접 실행한 SQL 로 바뀐 이름은 ttl 이 지나 다시 읽을 때 반영된다
+        jdbcTemplate.update("update team set team_name = 'dictionaryTeamRenamed' where team_id = ?", team.getId());
+
+        assertNull(dictionary.idsOf("dictionaryTeam"));
+        assertEquals(List.of(team.getId()), dictionary.idsOf("dictionaryTeamRenamed"));
+    }
+}
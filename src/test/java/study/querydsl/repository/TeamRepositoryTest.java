@@ -0,0 +1,99 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.metrics.StatementCounter;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 2차 캐시와 쿼리 캐시는 커밋된 데이터만 캐시하므로 트랜잭션을 직접 커밋하고 정리한다.
+ * 트랜잭션마다 영속성 컨텍스트가 새로 만들어지므로 두 번째 조회는 캐시에서 읽어야 한다.
+ */
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void before() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamRepositoryA");
+            em.persist(teamA);
+            em.persist(new Member("teamRepository1", 10, teamA));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("teamRepository")).execute();
+            queryFactory.delete(team).where(team.teamName.startsWith("teamRepository")).execute();
+        });
+    }
+
+    @Test
+    public void secondLevelCache() {
+        Long teamId = transactionTemplate.execute(status -> {
+            Member found = em.createQuery("select m from Member m where m.username = 'teamRepository1'", Member.class)
+                    .getSingleResult();
+            assertEquals("teamRepositoryA", found.getTeam().getTeamName());
+            return found.getTeam().getId();
+        });
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long statements = StatementCounter.current();
+        transactionTemplate.executeWithoutResult(status ->
+                assertEquals("teamRepositoryA", em.find(Team.class, teamId).getTeamName()));
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hits);
+        assertEquals(statements, StatementCounter.current());
+    }
+
+    @Test
+    public void findByTeamName() {
+        // 첫 조회에서 쿼리 캐시(id 목록)와 2차 캐시(엔티티)에 적재
+        List<Team> first = transactionTemplate.execute(status -> teamRepository.findByTeamName("teamRepositoryA"));
+        assertEquals(1, first.size());
+
+        long queryHits = statistics.getQueryCacheHitCount();
+        long entityHits = statistics.getSecondLevelCacheHitCount();
+        long statements = StatementCounter.current();
+        List<Team> second = transactionTemplate.execute(status -> teamRepository.findByTeamName("teamRepositoryA"));
+
+        assertEquals(1, second.size());
+        assertEquals(first.get(0).getId(), second.get(0).getId());
+        assertEquals("teamRepositoryA", second.get(0).getTeamName());
+        assertEquals(queryHits + 1, statistics.getQueryCacheHitCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > entityHits);
+        // SQL 없이 캐시에서만 읽는다
+        assertEquals(statements, StatementCounter.current());
+    }
+}
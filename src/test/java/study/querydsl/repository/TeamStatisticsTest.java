@@ -0,0 +1,188 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 집계는 커밋 이후에 반영되므로 트랜잭션을 직접 커밋하고 정리한다.
+ */
+@SpringBootTest
+class TeamStatisticsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamStatistics teamStatistics;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        // 다른 테스트의 JPQL 벌크 쓰기는 이벤트가 없으므로 커밋된 데이터로 시작
+        teamStatistics.invalidate();
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamStatisticsA");
+            Team teamB = new Team("teamStatisticsB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("teamStatistics1", 10, teamA));
+            em.persist(new Member("teamStatistics2", 20, teamA));
+            em.persist(new Member("teamStatistics3", 30, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+        teamStatistics.statistics();
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("teamStatistics")).execute();
+            queryFactory.delete(team).where(team.teamName.startsWith("teamStatistics")).execute();
+        });
+    }
+
+    @Test
+    public void incremental() {
+        assertStatistics(teamAId, 2, 30, 10, 20);
+        assertStatistics(teamBId, 1, 30, 30, 30);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = em.find(Team.class, teamAId);
+            em.persist(new Member("teamStatistics4", 40, teamA));
+        });
+        assertStatistics(teamAId, 3, 70, 10, 40);
+
+        // 나이 변경
+        transactionTemplate.executeWithoutResult(status -> findMember("teamStatistics1").setAge(15));
+        assertStatistics(teamAId, 3, 75, 15, 40);
+
+        // 팀 이동
+        transactionTemplate.executeWithoutResult(status ->
+                findMember("teamStatistics4").changeTeam(em.find(Team.class, teamBId)));
+        assertStatistics(teamAId, 2, 35, 15, 20);
+        assertStatistics(teamBId, 2, 70, 30, 40);
+
+        // 삭제
+        transactionTemplate.executeWithoutResult(status -> em.remove(findMember("teamStatistics3")));
+        assertStatistics(teamBId, 1, 40, 40, 40);
+
+        // 롤백된 변경은 반영하지 않는다
+        transactionTemplate.executeWithoutResult(status -> {
+            findMember("teamStatistics2").setAge(99);
+            status.setRollbackOnly();
+        });
+        assertStatistics(teamAId, 2, 35, 15, 20);
+    }
+
+    @Test
+    public void bulkUpdateRebuilds() {
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.username.startsWith("teamStatistics"))
+                .execute());
+
+        assertStatistics(teamAId, 2, 32, 11, 21);
+        assertStatistics(teamBId, 1, 31, 31, 31);
+    }
+
+    @Test
+    public void commitDuringRebuild() {
+        AtomicInteger loads = new AtomicInteger();
+        // 다시 만드는 동안 커밋되는 변경을 끼워 넣는다 (리스너로 등록된 채 남지만 다른 테스트에 영향은 없다)
+        TeamStatistics statistics = new TeamStatistics(entityManagerFactory) {
+            @Override
+            Loaded load() {
+                boolean first = loads.incrementAndGet() == 1;
+                if (first) {
+                    // 읽기 전에 커밋 (조회에 포함된다)
+                    transactionTemplate.executeWithoutResult(status -> findMember("teamStatistics1").setAge(11));
+                }
+                Loaded loaded = super.load();
+                if (first) {
+                    // 읽은 뒤에 커밋 (조회에 포함되지 않는다)
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Team teamA = em.find(Team.class, teamAId);
+                        em.persist(new Member("teamStatistics4", 40, teamA));
+                    });
+                }
+                return loaded;
+            }
+        };
+        statistics.register();
+
+        assertStatistics(statistics, teamAId, 3, 71, 11, 40);
+        assertStatistics(statistics, teamBId, 1, 30, 30, 30);
+        // 두 변경 모두 한 번씩만 반영됐으므로 다시 만들지 않는다
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void emptyTeam() {
+        transactionTemplate.executeWithoutResult(status -> em.remove(findMember("teamStatistics3")));
+
+        TeamStatisticsDto statistics = statisticsOf(teamBId);
+        assertEquals(0, statistics.getCount());
+        assertNull(statistics.getAvg());
+        assertNull(statistics.getMin());
+    }
+
+    private Member findMember(String username) {
+        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .getSingleResult();
+    }
+
+    private TeamStatisticsDto statisticsOf(Long teamId) {
+        return statisticsOf(teamStatistics, teamId);
+    }
+
+    private TeamStatisticsDto statisticsOf(TeamStatistics source, Long teamId) {
+        return source.statistics().stream()
+                .filter(statistics -> statistics.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void assertStatistics(Long teamId, long count, long sum, int min, int max) {
+        assertStatistics(teamStatistics, teamId, count, sum, min, max);
+    }
+
+    private void assertStatistics(TeamStatistics source, Long teamId, long count, long sum, int min, int max) {
+        TeamStatisticsDto statistics = statisticsOf(source, teamId);
+        assertEquals(count, statistics.getCount());
+        assertEquals(sum, statistics.getSum());
+        assertEquals((double) sum / count, statistics.getAvg().doubleValue());
+        assertEquals(min, statistics.getMin().intValue());
+        assertEquals(max, statistics.getMax().intValue());
+    }
+}
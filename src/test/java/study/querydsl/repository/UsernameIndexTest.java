@@ -0,0 +1,154 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 인덱스는 커밋 이후에 반영되므로 트랜잭션을 직접 커밋하고 정리한다.
+ * 다시 만들기는 백그라운드에서 하므로 결과가 바뀔 때까지 기다린다.
+ */
+@SpringBootTest
+class UsernameIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    UsernameIndex usernameIndex;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("autocompleteB", 10));
+            em.persist(new Member("autocompleteA", 20));
+            em.persist(new Member("autocompleteAB", 30));
+        });
+        // 다른 테스트의 JPQL 벌크 쓰기는 이벤트가 없으므로 커밋된 데이터로 시작
+        usernameIndex.invalidate();
+        awaitUsernames(List.of("autocompleteA", "autocompleteAB", "autocompleteB"), "autocomplete");
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status ->
+                queryFactory.delete(member).where(member.username.startsWith("autocomplete")).execute());
+    }
+
+    @Test
+    public void complete() {
+        assertEquals(List.of("autocompleteA", "autocompleteAB", "autocompleteB"), usernames("autocomplete", 10));
+        assertEquals(List.of("autocompleteA", "autocompleteAB"), usernames("autocompleteA", 10));
+        assertEquals(List.of("autocompleteA"), usernames("autocomplete", 1));
+        assertTrue(usernames("autocompleteC", 10).isEmpty());
+        assertTrue(usernameIndex.memoryBytes() > 0);
+    }
+
+    @Test
+    public void applyCommittedWrites() {
+        usernames("autocomplete", 10);
+
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("autocompleteAA", 40)));
+        assertEquals(List.of("autocompleteA", "autocompleteAA", "autocompleteAB", "autocompleteB"),
+                usernames("autocomplete", 10));
+
+        // username 변경, 삭제 (max-delta 2 를 넘으므로 백그라운드에서 스냅샷에 합쳐진다)
+        transactionTemplate.executeWithoutResult(status -> findMember("autocompleteB").setUsername("autocompleteAC"));
+        transactionTemplate.executeWithoutResult(status -> em.remove(findMember("autocompleteA")));
+        assertEquals(List.of("autocompleteAA", "autocompleteAB", "autocompleteAC"), usernames("autocomplete", 10));
+        assertEquals(List.of("autocompleteAA", "autocompleteAB"), usernames("autocompleteA", 2));
+
+        // 롤백된 변경은 반영하지 않는다
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("autocompleteZ", 50));
+            status.setRollbackOnly();
+        });
+        assertTrue(usernames("autocompleteZ", 10).isEmpty());
+    }
+
+    @Test
+    public void bulkUpdateRebuilds() {
+        usernames("autocomplete", 10);
+
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.username, "autocompleteBulk")
+                .where(member.username.eq("autocompleteB"))
+                .execute());
+
+        // 다시 만드는 동안은 이전 인덱스로 답한다
+        assertEquals(List.of("autocompleteA", "autocompleteAB", "autocompleteB"), usernames("autocomplete", 10));
+        awaitUsernames(List.of("autocompleteA", "autocompleteAB", "autocompleteBulk"), "autocomplete");
+    }
+
+    @Test
+    public void bulkUpdateKeepingUsernameDoesNotRebuild() throws Exception {
+        double rebuilds = rebuilds();
+
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.username.startsWith("autocomplete"))
+                .execute());
+
+        assertEquals(List.of("autocompleteA", "autocompleteAB", "autocompleteB"), usernames("autocomplete", 10));
+        Thread.sleep(100);
+        assertEquals(rebuilds, rebuilds());
+    }
+
+    private void awaitUsernames(List<String> expected, String prefix) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<String> actual = usernames(prefix, 10);
+        while (!expected.equals(actual) && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            actual = usernames(prefix, 10);
+        }
+        assertEquals(expected, actual);
+    }
+
+    private double rebuilds() {
+        return meterRegistry.get("member.username.index.rebuilds").functionCounter().count();
+    }
+
+    private List<String> usernames(String prefix, int limit) {
+        return usernameIndex.complete(prefix, limit).stream()
+                .map(UsernameMatch::getUsername)
+                .collect(Collectors.toList());
+    }
+
+    private Member findMember(String username) {
+        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,107 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.TestHelper;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class CountQueriesTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TestHelper testHelper;
+
+    @BeforeEach
+    public void before() {
+        testHelper.beforeSet();
+    }
+
+    @Test
+    public void dropUnreferencedJoinAndOrder() {
+        JPAQuery<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.teamName))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(20))
+                .orderBy(team.teamName.desc(), member.username.asc());
+
+        JPAQuery<Long> count = CountQueries.derive(content, queryFactory, em.getMetamodel());
+
+        assertNotNull(count);
+        String jpql = count.toString();
+        assertFalse(jpql.contains("join"));
+        assertFalse(jpql.contains("order by"));
+        assertTrue(jpql.startsWith("select count(member1)"));
+        assertEquals(3L, count.fetchOne());
+    }
+
+    @Test
+    public void keepReferencedJoinWithoutFetch() {
+        JPAQuery<Member> content = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(team.teamName.eq("teamA"));
+
+        JPAQuery<Long> count = CountQueries.derive(content, queryFactory, em.getMetamodel());
+
+        assertNotNull(count);
+        String jpql = count.toString();
+        assertTrue(jpql.contains("left join member1.team as team"));
+        assertFalse(jpql.contains("fetch"));
+        assertEquals(2L, count.fetchOne());
+    }
+
+    @Test
+    public void countGroups() {
+        JPAQuery<?> content = queryFactory
+                .select(team.teamName, member.age.avg())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.teamName)
+                .having(member.age.avg().gt(20));
+
+        JPAQuery<Long> count = CountQueries.derive(content, queryFactory, em.getMetamodel());
+
+        // teamA 평균 15, teamB 평균 35
+        assertNotNull(count);
+        assertTrue(count.toString().contains("group by"));
+        assertEquals(1L, count.fetchOne());
+    }
+
+    @Test
+    public void groupByThroughCollectionIsNotDerived() {
+        JPAQuery<?> content = queryFactory
+                .select(team.id, member.age)
+                .from(team)
+                .join(team.members, member)
+                .groupBy(team.id, member.age);
+
+        // 팀 하나가 나이마다 여러 그룹에 들어가므로 그룹별 min(team.id) 로 세면 4 가 아니라 2 가 된다
+        assertEquals(4, content.fetch().size());
+        assertNull(CountQueries.derive(content, queryFactory, em.getMetamodel()));
+    }
+}
@@ -0,0 +1,124 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void coalesceConcurrentCalls() throws Exception {
+        SingleFlight<String, List<String>> singleFlight = new SingleFlight<>("test", ArrayList::new, TIMEOUT, meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return new ArrayList<>(List.of("member1", "member2"));
+                })));
+            }
+
+            // leader 가 실행 중인 동안 나머지가 모두 합류할 때까지 기다린다
+            while (meterRegistry.get("repository.single-flight.requests").tag("role", "follower")
+                    .functionCounter().count() < callers - 1) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            List<List<String>> lists = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                lists.add(result.get(5, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, executions.get());
+            for (List<String> list : lists) {
+                assertEquals(List.of("member1", "member2"), list);
+            }
+            // 결과는 호출마다 복사본
+            lists.get(0).add("changed");
+            assertEquals(2, lists.get(1).size());
+            assertNotSame(lists.get(0), lists.get(1));
+
+            assertEquals((double) (callers - 1) / callers, singleFlight.coalescingRatio());
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failurePropagatesAndIsNotCached() {
+        SingleFlight<String, List<String>> singleFlight = new SingleFlight<>("test", ArrayList::new, TIMEOUT, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(List.of("ok"), singleFlight.execute("key", () -> List.of("ok")));
+    }
+
+    @Test
+    public void followerRunsAfterTimeout() throws Exception {
+        SingleFlight<String, List<String>> singleFlight =
+                new SingleFlight<>("test", ArrayList::new, Duration.ofMillis(50), meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<String>> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return List.of("leader");
+            }));
+            while (singleFlight.inFlight() == 0) {
+                Thread.sleep(10);
+            }
+
+            // leader 가 끝나지 않아도 timeout 이 지나면 직접 실행한다
+            assertEquals(List.of("follower"), singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                return List.of("follower");
+            }));
+            assertEquals(2, executions.get());
+            assertEquals(1, meterRegistry.get("repository.single-flight.requests").tag("role", "timeout")
+                    .functionCounter().count());
+
+            release.countDown();
+            assertEquals(List.of("leader"), leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
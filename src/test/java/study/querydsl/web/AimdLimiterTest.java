@@ -0,0 +1,104 @@
+package study.querydsl.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdLimiterTest {
+
+    private static final double TOLERANCE = 2.0;
+    private static final long FLOOR = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    public void rejectOverLimit() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, TOLERANCE, FLOOR, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void decreaseOnSlowResponse() {
+        AimdLimiter limiter = new AimdLimiter(8, 1, 10, TOLERANCE, FLOOR, 0.5);
+
+        // 첫 응답으로 기준 지연을 잡는다
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        assertEquals(8, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertEquals(4, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertEquals(2, limiter.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, false);
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void compareWithEndpointBaseline() {
+        // 원래 느린 엔드포인트는 자기 기준 지연과 비교하므로 한도를 줄이지 않는다
+        AimdLimiter limiter = new AimdLimiter(4, 1, 10, TOLERANCE, FLOOR, 0.5);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, false);
+        }
+        assertEquals(4, limiter.getLimit());
+        assertEquals(SLOW, limiter.getBaselineNanos());
+
+        // 평소보다 tolerance 배 넘게 느려지면 줄인다
+        limiter.tryAcquire();
+        limiter.release(SLOW * 3, false);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void ignoreJitterUnderFloor() {
+        // 기준의 몇 배라도 floor 안에 끝나면 느린 응답으로 보지 않는다
+        AimdLimiter limiter = new AimdLimiter(4, 1, 10, TOLERANCE, TimeUnit.MILLISECONDS.toNanos(50), 0.5);
+        limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void increaseWhenSaturatedAndFast() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 3, TOLERANCE, FLOOR, 0.5);
+
+        // 한도를 다 쓰는 동안 빠르게 끝나면 한도만큼 처리할 때마다 1씩 늘어난다
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+        assertEquals(3, limiter.getLimit());
+
+        // 요청이 적으면 늘리지 않는다
+        AimdLimiter idle = new AimdLimiter(4, 1, 10, TOLERANCE, FLOOR, 0.5);
+        for (int i = 0; i < 10; i++) {
+            idle.tryAcquire();
+            idle.release(FAST, false);
+        }
+        assertEquals(4, idle.getLimit());
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import study.querydsl.TestHelper;
+
+import javax.transaction.Transactional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.web.ColumnarJsonHttpMessageConverter.COLUMNAR_JSON;
+
+/**
+ * MockMvc 요청은 테스트 스레드에서 실행되므로 테스트 트랜잭션의 데이터를 그대로 본다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class ColumnarJsonHttpMessageConverterTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    TestHelper testHelper;
+
+    @BeforeEach
+    public void before() {
+        testHelper.beforeSet();
+    }
+
+    @Test
+    public void list() throws Exception {
+        mockMvc.perform(get("/v1/members").param("teamName", "teamB").accept(COLUMNAR_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(COLUMNAR_JSON))
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.username", containsInAnyOrder("member3", "member4")))
+                .andExpect(jsonPath("$.teamNames", contains("teamB")))
+                .andExpect(jsonPath("$.teamName", contains(0, 0)))
+                .andExpect(jsonPath("$.page").doesNotExist());
+    }
+
+    @Test
+    public void page() throws Exception {
+        mockMvc.perform(get("/v3/members").param("page", "0").param("size", "2").accept(COLUMNAR_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(COLUMNAR_JSON))
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.memberId", hasSize(2)))
+                .andExpect(jsonPath("$.page.number").value(0))
+                .andExpect(jsonPath("$.page.size").value(2))
+                .andExpect(jsonPath("$.page.totalElements").value(4))
+                .andExpect(jsonPath("$.page.totalPages").value(2));
+    }
+
+    @Test
+    public void defaultJson() throws Exception {
+        // Accept 를 명시하지 않으면 기존 JSON 응답
+        mockMvc.perform(get("/v1/members").param("teamName", "teamB"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].username", containsInAnyOrder("member3", "member4")));
+    }
+}